@@ -0,0 +1,89 @@
+package com.cmas.main.cmas;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-frame evaluation cost of each CMAS item. Frames come from the recording named by
+// -Dcmas.session=<file.pose>, or else from the item's scripted motion at 30 fps. A detector
+// that decides or runs out of frames is replaced and starts over from the first frame.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DetectorBenchmark {
+
+    @Param({"HEAD_ELEVATION", "LEG_RAISE", "LEG_LIFT_DURATION", "SUPINE_TO_PRONE", "SIT_UPS",
+            "SUPINE_TO_SIT", "ARM_RAISE_STRAIGHTEN", "ARM_RAISE_DURATION", "FLOOR_SIT", "ALL_FOURS",
+            "FLOOR_RISE", "CHAIR_RISE", "STOOL_STEP", "PICK_UP_OBJECT"})
+    public CMASItem item;
+
+    private PoseFrame[] frames;
+    private PoseDetector detector;
+    private int next;
+    private boolean decided;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String session = System.getProperty("cmas.session");
+        PoseSource source = session != null
+                ? new RecordedPoseSource(Path.of(session), new VirtualClock(0))
+                : PoseMotions.forItem(item).newSource(new VirtualClock(0), 30);
+
+        List<PoseFrame> loaded = new ArrayList<>();
+        try (source) {
+            PoseFrame frame = new PoseFrame();
+            while (source.next(frame, Long.MAX_VALUE / 2)) {
+                loaded.add(frame);
+                frame = new PoseFrame();
+            }
+        }
+        if (loaded.isEmpty()) throw new IOException("No frames to evaluate");
+        frames = loaded.toArray(new PoseFrame[0]);
+
+        // The detectors narrate on System.out; measure the scoring, not the console
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        restart();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public boolean evaluateFrame() {
+        if (decided || next == frames.length) restart();
+        decided = detector.onFrame(frames[next++]);
+        return decided;
+    }
+
+    private void restart() {
+        detector = item.newDetector();
+        detector.onStart();
+        next = 0;
+        decided = false;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cmas.main.cmas;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Cost of turning one pose frame off the wire into a PoseFrame: the /latest-frame JSON through
+// a Gson tree (what getPoseData did) or Jackson's streaming parser (what JsonPollingPoseSource
+// does), against the fixed-layout binary frame from /pose-stream
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PoseDecodeBenchmark {
+
+    private byte[] json;
+    private ByteBuffer packet;
+    private final PoseFrame frame = new PoseFrame();
+
+    @Setup
+    public void setup() {
+        PoseFrame sample = new PoseFrame();
+        PoseMotions.standing(sample);
+        sample.sequence = 1234;
+        sample.captureMicros = System.currentTimeMillis() * 1000;
+
+        json = SyntheticPoseServer.toJson(sample).getBytes(StandardCharsets.UTF_8);
+        packet = ByteBuffer.allocate(PoseFrameCodec.FRAME_BYTES);
+        PoseFrameCodec.encode(sample, packet);
+    }
+
+    @Benchmark
+    public PoseFrame gsonTree() throws IOException {
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8)) {
+            gsonDecode(JsonParser.parseReader(reader).getAsJsonObject(), frame);
+        }
+        return frame;
+    }
+
+    @Benchmark
+    public PoseFrame jacksonStreaming() throws IOException {
+        PoseJsonDecoder.decode(json, frame);
+        return frame;
+    }
+
+    @Benchmark
+    public PoseFrame binaryFrame() throws IOException {
+        packet.clear();
+        PoseFrameCodec.decode(packet, frame);
+        return frame;
+    }
+
+    // The Gson tree decoding JsonPollingPoseSource used before PoseJsonDecoder
+    private static boolean gsonDecode(JsonObject data, PoseFrame dst) {
+        if (!data.has("seq")) return false;
+
+        dst.sequence = data.get("seq").getAsLong();
+        dst.captureMicros = data.get("captured_at").getAsLong();
+        JsonElement published = data.get("published_at");
+        dst.publishMicros = published == null ? 0 : published.getAsLong();
+        dst.receiveMicros = 0;
+        dst.decodeNanos = 0;
+
+        JsonArray pose = data.getAsJsonArray("cmas");
+        int count = Math.min(pose.size(), PoseFrame.LANDMARK_COUNT);
+        for (int i = 0; i < count; i++) {
+            JsonObject point = pose.get(i).getAsJsonObject();
+            dst.x[i] = point.get("x").getAsFloat();
+            dst.y[i] = point.get("y").getAsFloat();
+            dst.z[i] = point.get("z").getAsFloat();
+            JsonElement visibility = point.get("visibility");
+            dst.visibility[i] = visibility == null ? 0f : visibility.getAsFloat();
+        }
+        for (int i = count; i < PoseFrame.LANDMARK_COUNT; i++) {
+            dst.x[i] = dst.y[i] = dst.z[i] = dst.visibility[i] = 0f;
+        }
+        dst.landmarkCount = count;
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package com.cmas.main.cmas;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.cmas.main.cmas.CMASScorer.*;
+
+// The CMASScorer functions on inputs kept in fields so the JIT cannot fold them away
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScorerBenchmark {
+
+    public double seconds = 42.5;
+    public long durationMs = 4500;
+    public int sitUps = 4;
+    public boolean yes = true;
+    public boolean no = false;
+    public int[] itemScores = {5, 2, 4, 3, 6, 3, 3, 4, 3, 4, 4, 4, 3, 3};
+
+    @Benchmark
+    public void durationScores(Blackhole bh) {
+        bh.consume(scoreHeadElevation(seconds));
+        bh.consume(scoreLegLiftDuration(seconds));
+        bh.consume(scoreArmRaiseDuration(seconds));
+    }
+
+    @Benchmark
+    public void outcomeScores(Blackhole bh) {
+        bh.consume(scoreLegRaise(yes, no));
+        bh.consume(scoreSupineToProne(yes, yes, no, yes));
+        bh.consume(scoreSitUps(sitUps));
+        bh.consume(scoreSupineToSit(yes, no, durationMs));
+        bh.consume(scoreArmRaiseHeight(yes, yes, no));
+        bh.consume(scoreFloorSit(yes, no));
+        bh.consume(scoreAllFours(yes, yes, yes, no));
+        bh.consume(scoreFloorRise(yes, no, yes));
+        bh.consume(scoreChairRise(yes, no, yes, no));
+        bh.consume(scoreStoolStep(yes, no, no, yes));
+        bh.consume(scorePickUpObject(yes, no, yes, yes));
+    }
+
+    @Benchmark
+    public int totalScore() {
+        return CMASScorer.totalScore(itemScores);
+    }
+}
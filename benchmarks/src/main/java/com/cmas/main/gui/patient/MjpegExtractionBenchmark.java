@@ -0,0 +1,143 @@
+package com.cmas.main.gui.patient;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost per frame of pulling JPEGs out of a /video_feed style multipart stream, without decoding them:
+// the old byte-at-a-time marker scan against MjpegFrameReader, with and without part Content-Length
+// headers. The streams are built in memory from 640x480 frames so only the extraction loop is measured.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MjpegExtractionBenchmark {
+
+    private static final int FRAMES = 30;
+
+    private byte[] stream;
+    private byte[] streamWithLengths;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream outWithLengths = new ByteArrayOutputStream();
+
+        for (int i = 0; i < FRAMES; i++) {
+            BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D g = image.createGraphics();
+            // Noise keeps the JPEGs close to camera-sized rather than compressing to almost nothing
+            for (int y = 0; y < 480; y += 8) {
+                for (int x = 0; x < 640; x += 8) {
+                    g.setColor(new Color(random.nextInt(0xFFFFFF)));
+                    g.fillRect(x, y, 8, 8);
+                }
+            }
+            g.dispose();
+
+            ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", jpeg);
+
+            out.write("--frame\r\nContent-Type: image/jpeg\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            jpeg.writeTo(out);
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+
+            outWithLengths.write(("--frame\r\nContent-Type: image/jpeg\r\nContent-Length: " + jpeg.size() + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            jpeg.writeTo(outWithLengths);
+            outWithLengths.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        stream = out.toByteArray();
+        streamWithLengths = outWithLengths.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public void byteAtATime(Blackhole bh) throws IOException {
+        InputStream in = new ByteArrayInputStream(stream);
+        byte[] frame;
+        while ((frame = scanBytes(in)) != null) {
+            bh.consume(frame);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public void markerScan(Blackhole bh) throws IOException {
+        extract(stream, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public void contentLength(Blackhole bh) throws IOException {
+        extract(streamWithLengths, bh);
+    }
+
+    private static void extract(byte[] stream, Blackhole bh) throws IOException {
+        MjpegFrameReader reader = new MjpegFrameReader(new ByteArrayInputStream(stream));
+        ByteBuffer frame;
+        while ((frame = reader.nextFrame()) != null) {
+            bh.consume(frame);
+        }
+    }
+
+    // What MjpegFrameReader did before reading in blocks: one read() per byte into a
+    // ByteArrayOutputStream, then a copy of every frame
+    private static byte[] scanBytes(InputStream stream) throws IOException {
+        ByteArrayOutputStream jpegBuffer = new ByteArrayOutputStream();
+        boolean recording = false;
+
+        while (true) {
+            int b = stream.read();
+            if (b == -1) return null;
+
+            if (!recording && b == 0xFF) {
+                int b2 = stream.read();
+                if (b2 == 0xD8) {
+                    jpegBuffer.reset();
+                    jpegBuffer.write(0xFF);
+                    jpegBuffer.write(0xD8);
+                    recording = true;
+                    continue;
+                }
+            }
+
+            if (recording) {
+                jpegBuffer.write(b);
+
+                if (b == 0xFF) {
+                    int b2 = stream.read();
+                    jpegBuffer.write(b2);
+                    if (b2 == 0xD9) {
+                        return jpegBuffer.toByteArray();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.cmas.main.cmas;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static com.cmas.main.cmas.CMASScorer.totalScore;
+
+// Re-scores a directory of recorded sessions without the UI or a camera, e.g. after a scoring
+// threshold changes. Every item runs against every session; items and sessions are spread over
+// a fork-join pool so a build server can use all of its cores.
+//
+// Usage: BatchScorer <sessionDir> [-o results.csv] [-threads N] [-verbose]
+public class BatchScorer {
+
+    public static void main(String[] args) throws Exception {
+        Path sessionDir = null;
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean verbose = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o" -> output = Path.of(args[++i]);
+                case "-threads" -> threads = Integer.parseInt(args[++i]);
+                case "-verbose" -> verbose = true;
+                default -> sessionDir = Path.of(args[i]);
+            }
+        }
+        if (sessionDir == null) {
+            System.err.println("Usage: BatchScorer <sessionDir> [-o results.csv] [-threads N] [-verbose]");
+            System.exit(2);
+        }
+
+        List<Path> sessions = findSessions(sessionDir);
+        System.err.println("Scoring " + sessions.size() + " sessions on " + threads + " threads");
+
+        // The detectors narrate every run on System.out; keep that out of the CSV and the way of the pool
+        PrintStream console = System.out;
+        if (!verbose) System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long start = System.nanoTime();
+        List<SessionScores> results;
+        try {
+            results = score(sessions, threads);
+        } finally {
+            System.setOut(console);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        if (output == null) {
+            PrintWriter out = new PrintWriter(console, true, StandardCharsets.UTF_8);
+            writeCsv(results, out);
+            out.flush();
+        } else {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+                writeCsv(results, out);
+            }
+        }
+        long failed = results.stream().filter(r -> r.error() != null).count();
+        System.err.println("Scored " + (results.size() - failed) + " sessions in " + elapsedMs + " ms"
+                + (failed > 0 ? ", " + failed + " could not be scored" : ""));
+        if (failed > 0) System.exit(1);
+    }
+
+    public static List<Path> findSessions(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(PoseSessionWriter.FILE_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    // Results come back in the order the sessions were given in
+    public static List<SessionScores> score(List<Path> sessions, int threads) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> sessions.parallelStream().map(BatchScorer::scoreSession).toList()).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Loads the session once, then scores each item on its own pass over the shared frames.
+    // A session that cannot be read or scored comes back with its error rather than aborting the batch.
+    public static SessionScores scoreSession(Path session) {
+        try {
+            return new SessionScores(session, scoreFrames(load(session)), null);
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof UncheckedIOException && e.getCause() != null ? e.getCause() : e;
+            String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+            return new SessionScores(session, null, message);
+        }
+    }
+
+    private static int[] scoreFrames(List<PoseFrame> frames) {
+        int[] scores = new int[CMASItem.values().length];
+
+        List.of(CMASItem.values()).parallelStream().forEach(item -> {
+            try {
+                scores[item.ordinal()] = DetectorEngine.evaluate(new InMemoryPoseSource(frames),
+                        List.of(item.newDetector())).get(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+        return scores;
+    }
+
+    private static List<PoseFrame> load(Path session) {
+        List<PoseFrame> frames = new ArrayList<>();
+        try (PoseSessionReader reader = new PoseSessionReader(session)) {
+            PoseFrame frame = new PoseFrame();
+            while (reader.next(frame)) {
+                frames.add(frame);
+                frame = new PoseFrame();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + session, e);
+        }
+        return frames;
+    }
+
+    public static void writeCsv(List<SessionScores> results, PrintWriter out) {
+        StringBuilder header = new StringBuilder("session");
+        for (CMASItem item : CMASItem.values()) {
+            header.append(',').append(item.name());
+        }
+        out.println(header.append(",total,error"));
+
+        for (SessionScores result : results) {
+            StringBuilder row = new StringBuilder(csv(result.session().toString()));
+            if (result.error() != null) {
+                // No scores for a failed session, just the reason
+                row.append(",".repeat(CMASItem.values().length + 1));
+                out.println(row.append(',').append(csv(result.error())));
+                continue;
+            }
+            for (int score : result.scores()) {
+                row.append(',').append(score);
+            }
+            out.println(row.append(',').append(result.total()).append(','));
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // Scores indexed by CMASItem ordinal; scores is null and error set when the session failed
+    public record SessionScores(Path session, int[] scores, String error) {
+        public int total() {
+            return totalScore(scores);
+        }
+    }
+}
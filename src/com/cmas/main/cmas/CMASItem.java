@@ -0,0 +1,37 @@
+package com.cmas.main.cmas;
+
+import java.util.function.Supplier;
+
+// The 14 CMAS items, in assessment order, with the detector that scores each one
+public enum CMASItem {
+    HEAD_ELEVATION("1. Head Elevation", CMASTest.HeadElevationDetector::new),
+    LEG_RAISE("2. Leg Raise", CMASTest.LegRaiseDetector::new),
+    LEG_LIFT_DURATION("3. Leg Lift Duration", CMASTest.StraightLegLiftDetector::new),
+    SUPINE_TO_PRONE("4. Supine to Prone", CMASTest.SupineToProneDetector::new),
+    SIT_UPS("5. Sit-Ups", CMASTest.SitUpDetector::new),
+    SUPINE_TO_SIT("6. Supine to Sit", CMASTest.SupineToSitDetector::new),
+    ARM_RAISE_STRAIGHTEN("7. Arm Raise / Straighten", CMASTest.ArmRaiseDetector::new),
+    ARM_RAISE_DURATION("8. Arm Raise / Duration", CMASTest.ArmRaiseDurationDetector::new),
+    FLOOR_SIT("9. Floor Sit", CMASTest.FloorSitDetector::new),
+    ALL_FOURS("10. All Fours", CMASTest.AllFoursDetector::new),
+    FLOOR_RISE("11. Floor Rise", CMASTest.FloorRiseDetector::new),
+    CHAIR_RISE("12. Chair Rise", CMASTest.ChairRiseDetector::new),
+    STOOL_STEP("13. Stool Step", CMASTest.StoolStepDetector::new),
+    PICK_UP_OBJECT("14. Pick-Up Object", CMASTest.PickUpObjectDetector::new);
+
+    private final String label;
+    private final Supplier<PoseDetector> detectorFactory;
+
+    CMASItem(String label, Supplier<PoseDetector> detectorFactory) {
+        this.label = label;
+        this.detectorFactory = detectorFactory;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public PoseDetector newDetector() {
+        return detectorFactory.get();
+    }
+}
@@ -1,53 +1,102 @@
 package com.cmas.main.cmas;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.cmas.main.metrics.MetricsRegistry;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-
-import com.google.gson.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static com.cmas.main.cmas.CMASScorer.*;
+import static com.cmas.main.cmas.PoseFrame.*;
 
 public class CMASTest {
 
-    //Getting the cmas data
-    private static final String PYTHON_POSE_URL = "http://localhost:8080/latest-frame";
     private static final int GET_READY_DELAY_MS = 5000;
-    private static final int POLL_INTERVAL_MS = 200;
+    // Frames arrive at camera rate, so stillness checks keep sampling at the old poll spacing
+    private static final int MOTION_SAMPLE_MS = 200;
+
+    // One dispatcher thread evaluates every running item, by default from the shared pose stream
+    private static volatile DetectorEngine engine = defaultEngine();
 
-    private static JsonObject getPoseData() throws IOException {
-        URL url = new URL(PYTHON_POSE_URL);
-        HttpURLConnection con = (HttpURLConnection) url.openConnection();
-        con.setRequestMethod("GET");
+    static {
+        MetricsRegistry.gauge("cmas_tests_running", "CMAS items currently being evaluated",
+                () -> engine.getActiveCount());
+    }
+
+    public static DetectorEngine getEngine() {
+        return engine;
+    }
 
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-            return JsonParser.parseReader(in).getAsJsonObject();
+    // With -Dcmas.posePoll=true each item long-polls /latest-frame instead, for setups
+    // where the stream cannot get through
+    private static DetectorEngine defaultEngine() {
+        if (Boolean.getBoolean("cmas.posePoll")) {
+            return new DetectorEngine(() -> new JsonPollingPoseSource(JsonPollingPoseSource.DEFAULT_URL, Clock.SYSTEM),
+                    Clock.SYSTEM);
         }
+        return new DetectorEngine(PoseStream.shared());
+    }
+
+    public static synchronized void useDefaultSource() {
+        engine.shutdown();
+        engine = defaultEngine();
+    }
+
+    // Points every item at another frame source, e.g. a recording on a VirtualClock to score it at full speed
+    public static synchronized void useSource(Supplier<? extends PoseSource> sources, Clock clock) {
+        engine.shutdown();
+        engine = new DetectorEngine(sources, clock);
+    }
+
+    // Runs several items at once from the same frames, e.g. both arm raise items in one go.
+    // Each item is still scored on its own; the map keeps the order items were given in.
+    public static Map<CMASItem, Integer> runTogether(List<CMASItem> items) throws Exception {
+        List<PoseDetector> detectors = new ArrayList<>();
+        for (CMASItem item : items) {
+            detectors.add(item.newDetector());
+        }
+
+        List<CompletableFuture<Integer>> results = engine.submitAll(detectors);
+
+        Map<CMASItem, Integer> scores = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            scores.put(items.get(i), DetectorEngine.await(results.get(i)));
+        }
+
+        System.out.println("Scores: " + scores.values() + " | Combined: " + totalScore(
+                scores.values().stream().mapToInt(Integer::intValue).toArray()));
+        return scores;
     }
 
     // #1 Head Elevation Test
     public static int runHeadElevationTest() throws Exception {
-        System.out.println("Starting test: Get ready...");
-        Thread.sleep(GET_READY_DELAY_MS);
+        return engine.run(new HeadElevationDetector());
+    }
 
-        double baseNoseY = -1;
-        long liftStart = 0;
-        long liftEnd = 0;
-        boolean lifted = false;
+    static final class HeadElevationDetector extends TimedDetector {
+        private double baseNoseY = -1;
+        private long liftStart = 0;
+        private long liftEnd = 0;
+        private boolean lifted = false;
 
-        while (true) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
+        HeadElevationDetector() {
+            super("Head Elevation", 0);
+        }
 
-            if (pose == null || pose.size() < 1) continue;
+        @Override
+        public void onStart() {
+            System.out.println("Starting test: Get ready...");
+        }
 
-            JsonObject nose = pose.get(0).getAsJsonObject();
-            double noseY = nose.get("y").getAsDouble();
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (now - startMillis < GET_READY_DELAY_MS) return false;
+            if (frame.getLandmarkCount() < 1) return false;
+
+            double noseY = frame.y(NOSE);
 
             if (baseNoseY < 0) {
                 baseNoseY = noseY;
@@ -56,55 +105,59 @@ public class CMASTest {
 
             // Lift detected
             if (!lifted && noseY < baseNoseY - 0.05) {
-                liftStart = System.currentTimeMillis();
+                liftStart = now;
                 lifted = true;
                 System.out.println("Head lifted!");
             }
 
             // Drop detected
             if (lifted && noseY > baseNoseY - 0.005) {
-                liftEnd = System.currentTimeMillis();
+                liftEnd = now;
                 System.out.println("Head lowered.");
-                break;
+                return true;
             }
-
-            Thread.sleep(POLL_INTERVAL_MS);
+            return false;
         }
 
-        double durationSec = (liftEnd - liftStart) / 1000.0;
-        System.out.println("Head was up for " + durationSec + " seconds");
+        @Override
+        public int score() {
+            double durationSec = (liftEnd - liftStart) / 1000.0;
+            System.out.println("Head was up for " + durationSec + " seconds");
 
-        return scoreHeadElevation(durationSec);
+            return scoreHeadElevation(durationSec);
+        }
     }
 
     // #2 Leg Raise Test
 
     public static int runLegRaiseTest() throws Exception {
-        System.out.println("Get ready for Leg Raise Test...");
-          // 5-second prep delay
-
-        double restY = -1;
-        double footLength = -1;
-        boolean lifted = false;
-        boolean touched = false;
+        return engine.run(new LegRaiseDetector());
+    }
 
-        long testStart = System.currentTimeMillis();
-        long maxDuration = 10000;  // 10 seconds timeout
+    static final class LegRaiseDetector extends TimedDetector {
+        private double restY = -1;
+        private double footLength = -1;
+        private boolean lifted = false;
+        private boolean touched = false;
 
-        while (System.currentTimeMillis() - testStart < maxDuration) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
+        LegRaiseDetector() {
+            super("Leg Raise", 10000);  // 10 seconds timeout
+        }
 
-            if (pose == null || pose.size() < 33) continue;
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Leg Raise Test...");
+        }
 
-            JsonObject ankle = pose.get(28).getAsJsonObject();
-            JsonObject toe = pose.get(32).getAsJsonObject();
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 33) return false;
 
-            double ankleY = ankle.get("y").getAsDouble();
+            double ankleY = frame.y(R_ANKLE);
 
             if (footLength < 0) {
-                double dx = toe.get("x").getAsDouble() - ankle.get("x").getAsDouble();
-                double dy = toe.get("y").getAsDouble() - ankle.get("y").getAsDouble();
+                double dx = frame.x(R_FOOT_INDEX) - frame.x(R_ANKLE);
+                double dy = frame.y(R_FOOT_INDEX) - frame.y(R_ANKLE);
                 footLength = Math.sqrt(dx * dx + dy * dy);
                 System.out.println("Estimated foot length: " + footLength);
             }
@@ -112,7 +165,7 @@ public class CMASTest {
             if (restY < 0) {
                 restY = ankleY;
                 System.out.println("Baseline ankle Y: " + restY);
-                continue;
+                return false;
             }
 
             double delta = restY - ankleY;
@@ -127,46 +180,50 @@ public class CMASTest {
             if (!touched && delta > touchThreshold) {
                 touched = true;
                 System.out.println("Leg reached target height (~2 foot lengths)!");
-                break;
+                return true;
             }
-
-            Thread.sleep(200);
+            return false;
         }
 
-        return scoreLegRaise(lifted, touched);
+        @Override
+        public int score() {
+            return scoreLegRaise(lifted, touched);
+        }
     }
 
     // #3 Straight leg lift test
 
     public static int runStraightLegLiftTest() throws Exception {
-        System.out.println("Get ready for Straight Leg Lift Test...");
-          // 5-second delay for user to prepare
-
-        double restY = -1;
-        double footLength = -1;
-        double liftTarget = -1;
+        return engine.run(new StraightLegLiftDetector());
+    }
 
-        long liftStart = 0;
-        long liftEnd = 0;
-        boolean lifting = false;
+    static final class StraightLegLiftDetector extends TimedDetector {
+        private double restY = -1;
+        private double footLength = -1;
+        private double liftTarget = -1;
 
-        long timeout = 120_000; // 2 minutes max
-        long testStart = System.currentTimeMillis();
+        private long liftStart = 0;
+        private long liftEnd = 0;
+        private boolean lifting = false;
 
-        while (System.currentTimeMillis() - testStart < timeout) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
+        StraightLegLiftDetector() {
+            super("Straight Leg Lift", 120_000); // 2 minutes max
+        }
 
-            if (pose == null || pose.size() < 33) continue;
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Straight Leg Lift Test...");
+        }
 
-            JsonObject ankle = pose.get(28).getAsJsonObject();
-            JsonObject toe = pose.get(32).getAsJsonObject();
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 33) return false;
 
-            double ankleY = ankle.get("y").getAsDouble();
+            double ankleY = frame.y(R_ANKLE);
 
             if (footLength < 0) {
-                double dx = toe.get("x").getAsDouble() - ankle.get("x").getAsDouble();
-                double dy = toe.get("y").getAsDouble() - ankle.get("y").getAsDouble();
+                double dx = frame.x(R_FOOT_INDEX) - frame.x(R_ANKLE);
+                double dy = frame.y(R_FOOT_INDEX) - frame.y(R_ANKLE);
                 footLength = Math.sqrt(dx * dx + dy * dy);
                 System.out.println("Foot length: " + footLength);
             }
@@ -175,77 +232,83 @@ public class CMASTest {
                 restY = ankleY;
                 liftTarget = restY - footLength;
                 System.out.println("Baseline ankle Y: " + restY + " | Target Y: " + liftTarget);
-                continue;
+                return false;
             }
 
             boolean aboveTarget = ankleY < liftTarget;
 
             if (aboveTarget && !lifting) {
-                liftStart = System.currentTimeMillis();
+                liftStart = now;
                 lifting = true;
                 System.out.println("Leg lift detected! Timing started...");
             }
 
             if (!aboveTarget && lifting) {
-                liftEnd = System.currentTimeMillis();
+                liftEnd = now;
                 System.out.println("Leg dropped. Timing ended.");
-                break;
+                return true;
             }
-
-            Thread.sleep(200);
+            return false;
         }
 
-        if (!lifting || liftStart == 0) {
-            System.out.println("User never lifted leg.");
-            return 0;
-        }
+        @Override
+        public int score() {
+            if (!lifting || liftStart == 0) {
+                System.out.println("User never lifted leg.");
+                return 0;
+            }
 
-        // If still holding by end of test window
-        if (liftEnd == 0) liftEnd = System.currentTimeMillis();
+            // If still holding by end of test window
+            if (liftEnd == 0) liftEnd = lastFrameMillis;
 
-        double duration = (liftEnd - liftStart) / 1000.0;
-        System.out.println("Held for " + duration + " seconds");
+            double duration = (liftEnd - liftStart) / 1000.0;
+            System.out.println("Held for " + duration + " seconds");
 
-        return scoreLegLiftDuration(duration);
+            return scoreLegLiftDuration(duration);
+        }
     }
 
 
     // #4 Suprine to Prone Test
 
     public static int runSupineToProneTest() throws Exception {
-        System.out.println("Get ready for Supine to Prone Roll...");
-        
+        return engine.run(new SupineToProneDetector());
+    }
 
-        boolean turnedSide = false;
-        boolean freedArm = false;
-        boolean proneAchieved = false;
+    static final class SupineToProneDetector extends TimedDetector {
+        private boolean turnedSide = false;
+        private boolean freedArm = false;
+        private boolean proneAchieved = false;
 
-        long timeStart = System.currentTimeMillis();
-        long timeRolled = 0;
-        long timeFreedArm = 0;
-        long timeProne = 0;
+        private long timeRolled = 0;
+        private long timeFreedArm = 0;
+        private long timeProne = 0;
 
-        long maxDuration = 15000;
+        SupineToProneDetector() {
+            super("Supine to Prone", 15000);
+        }
 
-        while (System.currentTimeMillis() - timeStart < maxDuration) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Supine to Prone Roll...");
+        }
 
-            if (pose == null || pose.size() < 25) continue;
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 25) return false;
 
-            double lShoulderX = pose.get(11).getAsJsonObject().get("x").getAsDouble();
-            double rShoulderX = pose.get(12).getAsJsonObject().get("x").getAsDouble();
-            double lHipX = pose.get(23).getAsJsonObject().get("x").getAsDouble();
-            double rHipX = pose.get(24).getAsJsonObject().get("x").getAsDouble();
-            double rWristX = pose.get(16).getAsJsonObject().get("x").getAsDouble();
-            double rElbowX = pose.get(14).getAsJsonObject().get("x").getAsDouble();
+            double lShoulderX = frame.x(L_SHOULDER);
+            double rShoulderX = frame.x(R_SHOULDER);
+            double lHipX = frame.x(L_HIP);
+            double rHipX = frame.x(R_HIP);
+            double rWristX = frame.x(R_WRIST);
 
             // Detect roll to side
             double shoulderDiff = Math.abs(rShoulderX - lShoulderX);
             double hipDiff = Math.abs(rHipX - lHipX);
             if (!turnedSide && shoulderDiff < 0.1 && hipDiff < 0.1) {
                 turnedSide = true;
-                timeRolled = System.currentTimeMillis();
+                timeRolled = now;
                 System.out.println("Rolled onto side.");
             }
 
@@ -253,25 +316,27 @@ public class CMASTest {
             double torsoMidX = (rShoulderX + rHipX) / 2.0;
             if (turnedSide && !freedArm && Math.abs(rWristX - torsoMidX) > 0.1) {
                 freedArm = true;
-                timeFreedArm = System.currentTimeMillis();
+                timeFreedArm = now;
                 System.out.println("Arm freed.");
             }
 
             // Fully prone
-            double rWristY = pose.get(16).getAsJsonObject().get("y").getAsDouble();
-            double rShoulderY = pose.get(12).getAsJsonObject().get("y").getAsDouble();
+            double rWristY = frame.y(R_WRIST);
+            double rShoulderY = frame.y(R_SHOULDER);
             if (Math.abs(rWristY - rShoulderY) < 0.05 && turnedSide && freedArm) {
                 proneAchieved = true;
-                timeProne = System.currentTimeMillis();
+                timeProne = now;
                 System.out.println("Reached prone.");
-                break;
+                return true;
             }
-
-            Thread.sleep(200);
+            return false;
         }
 
-        boolean clean = checkCleanSupineToProne(timeStart, timeRolled, timeFreedArm, timeProne);
-        return scoreSupineToProne(turnedSide, freedArm, proneAchieved, clean);
+        @Override
+        public int score() {
+            boolean clean = checkCleanSupineToProne(startMillis, timeRolled, timeFreedArm, timeProne);
+            return scoreSupineToProne(turnedSide, freedArm, proneAchieved, clean);
+        }
     }
 
     private static boolean checkCleanSupineToProne(long start, long rolled, long freed, long prone) {
@@ -286,132 +351,176 @@ public class CMASTest {
     // #5 Situp Test
 
     public static int runSitUpTest() throws Exception {
-        System.out.println("Get ready for Sit-Up Test. You’ll perform 6 sit-ups...");
-        
-
-        int successfulSitUps = 0;
-        int totalSitUps = 6;
-        boolean inRestPosition = true;
-        boolean inSitUp = false;
-        long sitUpTimeout = 15000;  // 15s max per sit-up
-
-        for (int i = 1; i <= totalSitUps; i++) {
-            System.out.println("Waiting for Sit-Up #" + i);
-            long start = System.currentTimeMillis();
-            boolean counted = false;
-
-            while (System.currentTimeMillis() - start < sitUpTimeout) {
-                JsonObject data = getPoseData();
-                JsonArray pose = data.getAsJsonArray("cmas");
-                if (pose == null || pose.size() < 25) continue;
-
-                double lShoulderY = pose.get(11).getAsJsonObject().get("y").getAsDouble();
-                double rShoulderY = pose.get(12).getAsJsonObject().get("y").getAsDouble();
-                double lHipY = pose.get(23).getAsJsonObject().get("y").getAsDouble();
-                double rHipY = pose.get(24).getAsJsonObject().get("y").getAsDouble();
-
-                double avgShoulderY = (lShoulderY + rShoulderY) / 2;
-                double avgHipY = (lHipY + rHipY) / 2;
-                double distance = avgShoulderY - avgHipY;
-
-                // Resting = shoulders high above hips
-                if (distance > 0.15) inRestPosition = true;
-
-                // Sit-up detected
-                if (inRestPosition && distance < 0.05 && !counted) {
-                    successfulSitUps++;
-                    counted = true;
-                    inRestPosition = false;
-                    System.out.println(" Sit-up #" + i + " counted!");
-                    break;
-                }
+        return engine.run(new SitUpDetector());
+    }
+
+    static final class SitUpDetector extends TimedDetector {
+        private static final int TOTAL_SIT_UPS = 6;
+        private static final long SIT_UP_TIMEOUT_MS = 15000;  // 15s max per sit-up
+        private static final long BREAK_MS = 1000;            // Small break before next
+
+        private int successfulSitUps = 0;
+        private boolean inRestPosition = true;
+
+        private int attempt = 0;
+        private long attemptStart = 0;
+        private long breakUntil = -1;
 
-                Thread.sleep(150);
+        SitUpDetector() {
+            super("Sit-Ups", 0);
+        }
+
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Sit-Up Test. You’ll perform 6 sit-ups...");
+        }
+
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (attempt == 0) {
+                beginAttempt(now);
             }
 
-            if (!counted) {
-                System.out.println(" Sit-up #" + i + " not detected.");
+            if (breakUntil >= 0) {
+                if (now < breakUntil) return false;
+                breakUntil = -1;
+                beginAttempt(now);
+            }
+
+            if (now - attemptStart >= SIT_UP_TIMEOUT_MS) {
+                System.out.println(" Sit-up #" + attempt + " not detected.");
+                return endAttempt(now);
+            }
+
+            if (frame.getLandmarkCount() < 25) return false;
+
+            double lShoulderY = frame.y(L_SHOULDER);
+            double rShoulderY = frame.y(R_SHOULDER);
+            double lHipY = frame.y(L_HIP);
+            double rHipY = frame.y(R_HIP);
+
+            double avgShoulderY = (lShoulderY + rShoulderY) / 2;
+            double avgHipY = (lHipY + rHipY) / 2;
+            double distance = avgShoulderY - avgHipY;
+
+            // Resting = shoulders high above hips
+            if (distance > 0.15) inRestPosition = true;
+
+            // Sit-up detected
+            if (inRestPosition && distance < 0.05) {
+                successfulSitUps++;
+                inRestPosition = false;
+                System.out.println(" Sit-up #" + attempt + " counted!");
+                return endAttempt(now);
             }
+            return false;
+        }
+
+        private void beginAttempt(long now) {
+            attempt++;
+            attemptStart = now;
+            System.out.println("Waiting for Sit-Up #" + attempt);
+        }
 
-            Thread.sleep(1000); // Small break before next
+        // Done after the last attempt, otherwise pause before the next one
+        private boolean endAttempt(long now) {
+            if (attempt >= TOTAL_SIT_UPS) return true;
+            breakUntil = now + BREAK_MS;
+            return false;
         }
 
-        return scoreSitUps(successfulSitUps);
+        @Override
+        public int score() {
+            return scoreSitUps(successfulSitUps);
+        }
     }
 
 
     // 6. Supine to Sit
 
     public static int runSupineToSitTest() throws Exception {
-        System.out.println("Get ready for Supine to Sit test...");
-         
+        return engine.run(new SupineToSitDetector());
+    }
+
+    static final class SupineToSitDetector extends TimedDetector {
+        private boolean transitioned = false;
+        private boolean struggling = false;
 
-        boolean transitioned = false;
-        boolean sitting = false;
-        boolean struggling = false;
+        private long rollStart = 0;
+        private long sitCompleteTime = 0;
 
-        long timeStart = System.currentTimeMillis();
-        long rollStart = 0;
-        long sitCompleteTime = 0;
+        private double previousShoulderY = -1;
+        private int delayCount = 0;
+        private long lastMotionSample = 0;
+        private final int maxDelayAllowed = 5;
 
-        double previousShoulderY = -1;
-        int delayCount = 0;
-        int maxDelayAllowed = 5;
-        long maxTestDuration = 15000;
+        SupineToSitDetector() {
+            super("Supine to Sit", 15000);
+        }
+
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Supine to Sit test...");
+        }
 
-        while (System.currentTimeMillis() - timeStart < maxTestDuration) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
-            if (pose == null || pose.size() < 25) continue;
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 25) return false;
 
-            double lShoulderY = pose.get(11).getAsJsonObject().get("y").getAsDouble();
-            double rShoulderY = pose.get(12).getAsJsonObject().get("y").getAsDouble();
-            double lHipY = pose.get(23).getAsJsonObject().get("y").getAsDouble();
-            double rHipY = pose.get(24).getAsJsonObject().get("y").getAsDouble();
+            double lShoulderY = frame.y(L_SHOULDER);
+            double rShoulderY = frame.y(R_SHOULDER);
+            double lHipY = frame.y(L_HIP);
+            double rHipY = frame.y(R_HIP);
 
             double avgShoulderY = (lShoulderY + rShoulderY) / 2;
             double avgHipY = (lHipY + rHipY) / 2;
             double shoulderHeight = avgHipY - avgShoulderY;
 
             if (rollStart == 0 && shoulderHeight < 0.05) {
-                rollStart = System.currentTimeMillis();
+                rollStart = now;
                 System.out.println("Supine position baseline established.");
             }
 
             if (shoulderHeight > 0.1 && !transitioned) {
                 transitioned = true;
-                sitCompleteTime = System.currentTimeMillis();
+                sitCompleteTime = now;
                 System.out.println("Sit-up movement detected.");
             }
 
-            // Monitor for struggling (jitter or slow progress)
-            if (previousShoulderY > 0 && Math.abs(previousShoulderY - avgShoulderY) < 0.005) {
-                delayCount++;
-            } else {
-                delayCount = Math.max(0, delayCount - 1);
-            }
+            if (now - lastMotionSample >= MOTION_SAMPLE_MS) {
+                lastMotionSample = now;
 
-            if (delayCount > maxDelayAllowed) {
-                struggling = true;
-            }
+                // Monitor for struggling (jitter or slow progress)
+                if (previousShoulderY > 0 && Math.abs(previousShoulderY - avgShoulderY) < 0.005) {
+                    delayCount++;
+                } else {
+                    delayCount = Math.max(0, delayCount - 1);
+                }
 
-            previousShoulderY = avgShoulderY;
+                if (delayCount > maxDelayAllowed) {
+                    struggling = true;
+                }
 
-            Thread.sleep(200);
+                previousShoulderY = avgShoulderY;
+            }
+            return false;
         }
 
-        return scoreSupineToSit(transitioned, struggling, sitCompleteTime - rollStart);
+        @Override
+        public int score() {
+            return scoreSupineToSit(transitioned, struggling, sitCompleteTime - rollStart);
+        }
     }
 
     // 7. Arm Raise / Straighten
 
-    private static double getAngle(JsonObject a, JsonObject b, JsonObject c) {
-        double ax = a.get("x").getAsDouble();
-        double ay = a.get("y").getAsDouble();
-        double bx = b.get("x").getAsDouble();
-        double by = b.get("y").getAsDouble();
-        double cx = c.get("x").getAsDouble();
-        double cy = c.get("y").getAsDouble();
+    private static double getAngle(PoseFrame frame, int a, int b, int c) {
+        double ax = frame.x(a);
+        double ay = frame.y(a);
+        double bx = frame.x(b);
+        double by = frame.y(b);
+        double cx = frame.x(c);
+        double cy = frame.y(c);
 
         double abX = ax - bx;
         double abY = ay - by;
@@ -426,38 +535,37 @@ public class CMASTest {
     }
 
     public static int runArmRaiseTest() throws Exception {
-        System.out.println("Get ready for Arm Raise Test...");
-        
+        return engine.run(new ArmRaiseDetector());
+    }
 
-        int result = 0;
+    static final class ArmRaiseDetector extends TimedDetector {
+        private int result = 0;
 
-        long timeout = 10000;
-        long start = System.currentTimeMillis();
+        ArmRaiseDetector() {
+            super("Arm Raise / Straighten", 10000);
+        }
 
-        while (System.currentTimeMillis() - start < timeout) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
-            if (pose == null || pose.size() < 17) continue;
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Arm Raise Test...");
+        }
 
-            JsonObject lShoulder = pose.get(11).getAsJsonObject();
-            JsonObject rShoulder = pose.get(12).getAsJsonObject();
-            JsonObject lElbow = pose.get(13).getAsJsonObject();
-            JsonObject rElbow = pose.get(14).getAsJsonObject();
-            JsonObject lWrist = pose.get(15).getAsJsonObject();
-            JsonObject rWrist = pose.get(16).getAsJsonObject();
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 17) return false;
 
-            double lShoulderY = lShoulder.get("y").getAsDouble();
-            double rShoulderY = rShoulder.get("y").getAsDouble();
-            double lWristY = lWrist.get("y").getAsDouble();
-            double rWristY = rWrist.get("y").getAsDouble();
+            double lShoulderY = frame.y(L_SHOULDER);
+            double rShoulderY = frame.y(R_SHOULDER);
+            double lWristY = frame.y(L_WRIST);
+            double rWristY = frame.y(R_WRIST);
 
             boolean lAboveShoulder = lWristY < lShoulderY;
             boolean rAboveShoulder = rWristY < rShoulderY;
             boolean lAboveHead = lWristY < 0.3;
             boolean rAboveHead = rWristY < 0.3;
 
-            double lAngle = getAngle(lShoulder, lElbow, lWrist);
-            double rAngle = getAngle(rShoulder, rElbow, rWrist);
+            double lAngle = getAngle(frame, L_SHOULDER, L_ELBOW, L_WRIST);
+            double rAngle = getAngle(frame, R_SHOULDER, R_ELBOW, R_WRIST);
 
             boolean lStraight = lAngle > 160;
             boolean rStraight = rAngle > 160;
@@ -472,150 +580,167 @@ public class CMASTest {
                 result = 3;
             }
 
-            if (result > 0) break;
-
-            Thread.sleep(200);
+            return result > 0;
         }
 
-        return result;
+        @Override
+        public int score() {
+            return result;
+        }
     }
 
     // 8. Arm Raise / Duration
 
     public static int runArmRaiseDurationTest() throws Exception {
-        System.out.println("Get ready for Arm Raise Duration Test...");
-
-        long raiseStart = 0;
-        long raiseEnd = 0;
-        boolean raised = false;
+        return engine.run(new ArmRaiseDurationDetector());
+    }
 
-        long timeout = 65000;
-        long startTime = System.currentTimeMillis();
+    static final class ArmRaiseDurationDetector extends TimedDetector {
+        private long raiseStart = 0;
+        private long raiseEnd = 0;
+        private boolean raised = false;
 
-        while (System.currentTimeMillis() - startTime < timeout) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
+        ArmRaiseDurationDetector() {
+            super("Arm Raise / Duration", 65000);
+        }
 
-            if (pose == null || pose.size() < 17) continue;
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Arm Raise Duration Test...");
+        }
 
-            JsonObject lWrist = pose.get(15).getAsJsonObject();
-            JsonObject rWrist = pose.get(16).getAsJsonObject();
-            JsonObject lShoulder = pose.get(11).getAsJsonObject();
-            JsonObject rShoulder = pose.get(12).getAsJsonObject();
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 17) return false;
 
-            boolean lUp = lWrist.get("y").getAsDouble() < lShoulder.get("y").getAsDouble();
-            boolean rUp = rWrist.get("y").getAsDouble() < rShoulder.get("y").getAsDouble();
+            boolean lUp = frame.y(L_WRIST) < frame.y(L_SHOULDER);
+            boolean rUp = frame.y(R_WRIST) < frame.y(R_SHOULDER);
 
             if (lUp && rUp && !raised) {
-                raiseStart = System.currentTimeMillis();
+                raiseStart = now;
                 raised = true;
                 System.out.println("Arms raised. Timing started...");
             }
 
             if ((!lUp || !rUp) && raised) {
-                raiseEnd = System.currentTimeMillis();
+                raiseEnd = now;
                 System.out.println("Arms lowered. Timing ended.");
-                break;
+                return true;
             }
-
-            Thread.sleep(200);
+            return false;
         }
 
-        if (!raised) return 0;
-        if (raiseEnd == 0) raiseEnd = System.currentTimeMillis();
+        @Override
+        public int score() {
+            if (!raised) return 0;
+            if (raiseEnd == 0) raiseEnd = lastFrameMillis;
 
-        double duration = (raiseEnd - raiseStart) / 1000.0;
-        System.out.println("Duration held: " + duration + " seconds");
+            double duration = (raiseEnd - raiseStart) / 1000.0;
+            System.out.println("Duration held: " + duration + " seconds");
 
-        return scoreArmRaiseDuration(duration);
+            return scoreArmRaiseDuration(duration);
+        }
     }
 
     // 9. Floor Sit
 
     public static int runFloorSitTest() throws Exception {
-        System.out.println("Get ready for Floor Sit test...");
+        return engine.run(new FloorSitDetector());
+    }
 
-        boolean sittingDetected = false;
-        boolean hesitant = false;
+    static final class FloorSitDetector extends TimedDetector {
+        private boolean sittingDetected = false;
+        private boolean hesitant = false;
 
-        long timeStart = System.currentTimeMillis();
-        long sitStartTime = 0;
-        long sitEndTime = 0;
+        private double previousHipY = -1;
+        private int freezeCount = 0;
+        private long lastMotionSample = 0;
+        private final int freezeThreshold = 5;
 
-        double previousHipY = -1;
-        int freezeCount = 0;
-        int freezeThreshold = 5;
-        long maxDuration = 15000;
+        FloorSitDetector() {
+            super("Floor Sit", 15000);
+        }
 
-        while (System.currentTimeMillis() - timeStart < maxDuration) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Floor Sit test...");
+        }
 
-            if (pose == null || pose.size() < 25) continue;
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 25) return false;
 
-            double lHipY = pose.get(23).getAsJsonObject().get("y").getAsDouble();
-            double rHipY = pose.get(24).getAsJsonObject().get("y").getAsDouble();
+            double lHipY = frame.y(L_HIP);
+            double rHipY = frame.y(R_HIP);
             double avgHipY = (lHipY + rHipY) / 2;
 
-            if (sitStartTime == 0) {
-                sitStartTime = System.currentTimeMillis();
-            }
-
             // Detect sitting position
             if (avgHipY > 0.8) {
                 sittingDetected = true;
-                sitEndTime = System.currentTimeMillis();
                 System.out.println("Sit position detected.");
-                break;
+                return true;
             }
 
-            // Hesitation detection (no significant change)
-            if (previousHipY > 0 && Math.abs(previousHipY - avgHipY) < 0.005) {
-                freezeCount++;
-            } else {
-                freezeCount = Math.max(0, freezeCount - 1);
-            }
+            if (now - lastMotionSample >= MOTION_SAMPLE_MS) {
+                lastMotionSample = now;
 
-            if (freezeCount >= freezeThreshold) {
-                hesitant = true;
-            }
+                // Hesitation detection (no significant change)
+                if (previousHipY > 0 && Math.abs(previousHipY - avgHipY) < 0.005) {
+                    freezeCount++;
+                } else {
+                    freezeCount = Math.max(0, freezeCount - 1);
+                }
 
-            previousHipY = avgHipY;
+                if (freezeCount >= freezeThreshold) {
+                    hesitant = true;
+                }
 
-            Thread.sleep(200);
+                previousHipY = avgHipY;
+            }
+            return false;
         }
 
-        return scoreFloorSit(sittingDetected, hesitant);
+        @Override
+        public int score() {
+            return scoreFloorSit(sittingDetected, hesitant);
+        }
     }
 
     // 10. All Fours Maneuver
 
     public static int runAllFoursTest() throws Exception {
-        System.out.println("Get ready for All Fours Maneuver...");
+        return engine.run(new AllFoursDetector());
+    }
+
+    static final class AllFoursDetector extends TimedDetector {
+        private boolean reachedAllFours = false;
+        private boolean raisedHead = false;
+        private boolean crawled = false;
+        private boolean legLifted = false;
 
-        boolean reachedAllFours = false;
-        boolean raisedHead = false;
-        boolean crawled = false;
-        boolean legLifted = false;
+        private double initialHipX = -1;
+        private double initialWristX = -1;
 
-        double initialHipX = -1;
-        double initialWristX = -1;
+        AllFoursDetector() {
+            super("All Fours", 20000);
+        }
 
-        long testStart = System.currentTimeMillis();
-        long maxDuration = 20000;
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for All Fours Maneuver...");
+        }
 
-        while (System.currentTimeMillis() - testStart < maxDuration) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
-            if (pose == null || pose.size() < 29) continue;
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 29) return false;
 
-            double lWristY = pose.get(15).getAsJsonObject().get("y").getAsDouble();
-            double rWristY = pose.get(16).getAsJsonObject().get("y").getAsDouble();
-            double lKneeY = pose.get(25).getAsJsonObject().get("y").getAsDouble();
-            double rKneeY = pose.get(26).getAsJsonObject().get("y").getAsDouble();
-            double lHipY = pose.get(23).getAsJsonObject().get("y").getAsDouble();
-            double rHipY = pose.get(24).getAsJsonObject().get("y").getAsDouble();
-            double noseY = pose.get(0).getAsJsonObject().get("y").getAsDouble();
+            double lWristY = frame.y(L_WRIST);
+            double rWristY = frame.y(R_WRIST);
+            double lKneeY = frame.y(L_KNEE);
+            double rKneeY = frame.y(R_KNEE);
+            double lHipY = frame.y(L_HIP);
+            double rHipY = frame.y(R_HIP);
+            double noseY = frame.y(NOSE);
 
             double avgWristY = (lWristY + rWristY) / 2;
             double avgKneeY = (lKneeY + rKneeY) / 2;
@@ -623,10 +748,8 @@ public class CMASTest {
 
             if (!reachedAllFours && avgWristY > avgHipY && avgKneeY > avgHipY) {
                 reachedAllFours = true;
-                initialHipX = (pose.get(23).getAsJsonObject().get("x").getAsDouble()
-                        + pose.get(24).getAsJsonObject().get("x").getAsDouble()) / 2;
-                initialWristX = (pose.get(15).getAsJsonObject().get("x").getAsDouble()
-                        + pose.get(16).getAsJsonObject().get("x").getAsDouble()) / 2;
+                initialHipX = (frame.x(L_HIP) + frame.x(R_HIP)) / 2.0;
+                initialWristX = (frame.x(L_WRIST) + frame.x(R_WRIST)) / 2.0;
                 System.out.println("Entered all-fours position.");
             }
 
@@ -636,10 +759,8 @@ public class CMASTest {
             }
 
             if (reachedAllFours && !crawled) {
-                double currentHipX = (pose.get(23).getAsJsonObject().get("x").getAsDouble()
-                        + pose.get(24).getAsJsonObject().get("x").getAsDouble()) / 2;
-                double currentWristX = (pose.get(15).getAsJsonObject().get("x").getAsDouble()
-                        + pose.get(16).getAsJsonObject().get("x").getAsDouble()) / 2;
+                double currentHipX = (frame.x(L_HIP) + frame.x(R_HIP)) / 2.0;
+                double currentWristX = (frame.x(L_WRIST) + frame.x(R_WRIST)) / 2.0;
 
                 if (Math.abs(currentHipX - initialHipX) > 0.05 || Math.abs(currentWristX - initialWristX) > 0.05) {
                     crawled = true;
@@ -648,64 +769,67 @@ public class CMASTest {
             }
 
             if (reachedAllFours && !legLifted) {
-                double lAnkleY = pose.get(27).getAsJsonObject().get("y").getAsDouble();
-                double rAnkleY = pose.get(28).getAsJsonObject().get("y").getAsDouble();
+                double lAnkleY = frame.y(L_ANKLE);
+                double rAnkleY = frame.y(R_ANKLE);
 
                 if (lAnkleY < lKneeY - 0.1 || rAnkleY < rKneeY - 0.1) {
                     legLifted = true;
                     System.out.println("Leg lifted and extended.");
-                    break;
+                    return true;
                 }
             }
-
-            Thread.sleep(200);
+            return false;
         }
 
-        return scoreAllFours(reachedAllFours, raisedHead, crawled, legLifted);
+        @Override
+        public int score() {
+            return scoreAllFours(reachedAllFours, raisedHead, crawled, legLifted);
+        }
     }
 
     // 11. Floor Rise
 
     public static int runFloorRiseTest() throws Exception {
-        System.out.println("Get ready for Floor Rise test...");
-        
+        return engine.run(new FloorRiseDetector());
+    }
 
-        boolean usedChair = false;  // Not detectable without external reference
-        boolean usedHands = false;
-        boolean struggled = false;
-        boolean stoodUp = false;
+    static final class FloorRiseDetector extends TimedDetector {
+        private boolean usedHands = false;
+        private boolean struggled = false;
+        private boolean stoodUp = false;
 
-        double hipYStart = -1;
-        double hipYEnd = -1;
-        long riseStart = 0;
-        long riseEnd = 0;
-        double prevHipY = -1;
-        int freezeCount = 0;
-        int freezeLimit = 5;
+        private double hipYStart = -1;
+        private double prevHipY = -1;
+        private int freezeCount = 0;
+        private long lastMotionSample = 0;
+        private final int freezeLimit = 5;
 
-        long startTime = System.currentTimeMillis();
-        long timeout = 15000;
+        FloorRiseDetector() {
+            super("Floor Rise", 15000);
+        }
 
-        while (System.currentTimeMillis() - startTime < timeout) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Floor Rise test...");
+        }
 
-            if (pose == null || pose.size() < 29) continue;
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 29) return false;
 
-            double lHipY = pose.get(23).getAsJsonObject().get("y").getAsDouble();
-            double rHipY = pose.get(24).getAsJsonObject().get("y").getAsDouble();
+            double lHipY = frame.y(L_HIP);
+            double rHipY = frame.y(R_HIP);
             double avgHipY = (lHipY + rHipY) / 2;
 
-            double lWristY = pose.get(15).getAsJsonObject().get("y").getAsDouble();
-            double rWristY = pose.get(16).getAsJsonObject().get("y").getAsDouble();
-            double lKneeY = pose.get(25).getAsJsonObject().get("y").getAsDouble();
-            double rKneeY = pose.get(26).getAsJsonObject().get("y").getAsDouble();
+            double lWristY = frame.y(L_WRIST);
+            double rWristY = frame.y(R_WRIST);
+            double lKneeY = frame.y(L_KNEE);
+            double rKneeY = frame.y(R_KNEE);
             double avgKneeY = (lKneeY + rKneeY) / 2;
 
             // Starting seated
             if (hipYStart < 0 && avgHipY > 0.8) {
                 hipYStart = avgHipY;
-                riseStart = System.currentTimeMillis();
             }
 
             // Detect use of hands (wrists below hips during motion)
@@ -713,86 +837,92 @@ public class CMASTest {
                 usedHands = true;
             }
 
-            // Movement stagnation (hesitation)
-            if (prevHipY > 0 && Math.abs(prevHipY - avgHipY) < 0.005) {
-                freezeCount++;
-            } else {
-                freezeCount = Math.max(0, freezeCount - 1);
-            }
+            if (now - lastMotionSample >= MOTION_SAMPLE_MS) {
+                lastMotionSample = now;
 
-            if (freezeCount > freezeLimit) {
-                struggled = true;
-            }
+                // Movement stagnation (hesitation)
+                if (prevHipY > 0 && Math.abs(prevHipY - avgHipY) < 0.005) {
+                    freezeCount++;
+                } else {
+                    freezeCount = Math.max(0, freezeCount - 1);
+                }
 
-            prevHipY = avgHipY;
+                if (freezeCount > freezeLimit) {
+                    struggled = true;
+                }
+
+                prevHipY = avgHipY;
+            }
 
             // Standing = hips high enough
             if (avgHipY < 0.45 && hipYStart > 0.7) {
-                hipYEnd = avgHipY;
-                riseEnd = System.currentTimeMillis();
                 stoodUp = true;
-                break;
+                return true;
             }
-
-            Thread.sleep(200);
+            return false;
         }
 
-        return scoreFloorRise(stoodUp, usedHands, struggled);
+        @Override
+        public int score() {
+            return scoreFloorRise(stoodUp, usedHands, struggled);
+        }
     }
 
     // 12. Chair Rise
 
     public static int runChairRiseTest() throws Exception {
-        System.out.println("Get ready for Chair Rise test...");
-        
+        return engine.run(new ChairRiseDetector());
+    }
 
-        boolean usedChairSide = false; // inferred from hands behind or outside body
-        boolean usedThighs = false;
-        boolean struggled = false;
-        boolean stoodUp = false;
+    static final class ChairRiseDetector extends TimedDetector {
+        private boolean usedChairSide = false; // inferred from hands behind or outside body
+        private boolean usedThighs = false;
+        private boolean struggled = false;
+        private boolean stoodUp = false;
 
-        double hipYStart = -1;
-        double hipYEnd = -1;
-        long riseStart = 0;
-        long riseEnd = 0;
-        double prevHipY = -1;
-        int freezeCount = 0;
-        int freezeLimit = 5;
+        private double hipYStart = -1;
+        private double prevHipY = -1;
+        private int freezeCount = 0;
+        private long lastMotionSample = 0;
+        private final int freezeLimit = 5;
 
-        long startTime = System.currentTimeMillis();
-        long timeout = 15000;
+        ChairRiseDetector() {
+            super("Chair Rise", 15000);
+        }
 
-        while (System.currentTimeMillis() - startTime < timeout) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Chair Rise test...");
+        }
 
-            if (pose == null || pose.size() < 29) continue;
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 29) return false;
 
-            double lHipY = pose.get(23).getAsJsonObject().get("y").getAsDouble();
-            double rHipY = pose.get(24).getAsJsonObject().get("y").getAsDouble();
+            double lHipY = frame.y(L_HIP);
+            double rHipY = frame.y(R_HIP);
             double avgHipY = (lHipY + rHipY) / 2;
 
-            double lWristY = pose.get(15).getAsJsonObject().get("y").getAsDouble();
-            double rWristY = pose.get(16).getAsJsonObject().get("y").getAsDouble();
-            double lWristX = pose.get(15).getAsJsonObject().get("x").getAsDouble();
-            double rWristX = pose.get(16).getAsJsonObject().get("x").getAsDouble();
+            double lWristY = frame.y(L_WRIST);
+            double rWristY = frame.y(R_WRIST);
+            double lWristX = frame.x(L_WRIST);
+            double rWristX = frame.x(R_WRIST);
 
-            double lKneeY = pose.get(25).getAsJsonObject().get("y").getAsDouble();
-            double rKneeY = pose.get(26).getAsJsonObject().get("y").getAsDouble();
-            double lKneeX = pose.get(25).getAsJsonObject().get("x").getAsDouble();
-            double rKneeX = pose.get(26).getAsJsonObject().get("x").getAsDouble();
+            double lKneeY = frame.y(L_KNEE);
+            double rKneeY = frame.y(R_KNEE);
+            double lKneeX = frame.x(L_KNEE);
+            double rKneeX = frame.x(R_KNEE);
 
             // Seated detection
             if (hipYStart < 0 && avgHipY > 0.75) {
                 hipYStart = avgHipY;
-                riseStart = System.currentTimeMillis();
             }
 
             // Wrist position analysis
             boolean leftOnThigh = lWristY > lKneeY && Math.abs(lWristX - lKneeX) < 0.1;
             boolean rightOnThigh = rWristY > rKneeY && Math.abs(rWristX - rKneeX) < 0.1;
-            boolean leftBehindBody = lWristX < pose.get(23).getAsJsonObject().get("x").getAsDouble() - 0.15;
-            boolean rightBehindBody = rWristX > pose.get(24).getAsJsonObject().get("x").getAsDouble() + 0.15;
+            boolean leftBehindBody = lWristX < frame.x(L_HIP) - 0.15;
+            boolean rightBehindBody = rWristX > frame.x(R_HIP) + 0.15;
 
             if (leftOnThigh || rightOnThigh) {
                 usedThighs = true;
@@ -804,63 +934,73 @@ public class CMASTest {
 
             // Standing detection
             if (avgHipY < 0.45 && hipYStart > 0.7) {
-                hipYEnd = avgHipY;
-                riseEnd = System.currentTimeMillis();
                 stoodUp = true;
-                break;
+                return true;
             }
 
-            // Struggle detection
-            if (prevHipY > 0 && Math.abs(prevHipY - avgHipY) < 0.005) {
-                freezeCount++;
-            } else {
-                freezeCount = Math.max(0, freezeCount - 1);
-            }
+            if (now - lastMotionSample >= MOTION_SAMPLE_MS) {
+                lastMotionSample = now;
 
-            if (freezeCount > freezeLimit) {
-                struggled = true;
-            }
+                // Struggle detection
+                if (prevHipY > 0 && Math.abs(prevHipY - avgHipY) < 0.005) {
+                    freezeCount++;
+                } else {
+                    freezeCount = Math.max(0, freezeCount - 1);
+                }
 
-            prevHipY = avgHipY;
+                if (freezeCount > freezeLimit) {
+                    struggled = true;
+                }
 
-            Thread.sleep(200);
+                prevHipY = avgHipY;
+            }
+            return false;
         }
 
-        return scoreChairRise(stoodUp, usedChairSide, usedThighs, struggled);
+        @Override
+        public int score() {
+            return scoreChairRise(stoodUp, usedChairSide, usedThighs, struggled);
+        }
     }
 
     // 13. Stool Step
 
     public static int runStoolStepTest() throws Exception {
-        System.out.println("Get ready for Stool Step test...");
-        
-
-        boolean attempted = false;
-        boolean usedSupport = false;
-        boolean usedThigh = false;
-        boolean completed = false;
-
-        long startTime = System.currentTimeMillis();
-        long timeout = 15000;
-
-        while (System.currentTimeMillis() - startTime < timeout) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
-            if (pose == null || pose.size() < 29) continue;
-
-            double lAnkleY = pose.get(27).getAsJsonObject().get("y").getAsDouble();
-            double rAnkleY = pose.get(28).getAsJsonObject().get("y").getAsDouble();
-            double lKneeY = pose.get(25).getAsJsonObject().get("y").getAsDouble();
-            double rKneeY = pose.get(26).getAsJsonObject().get("y").getAsDouble();
-            double lHipY = pose.get(23).getAsJsonObject().get("y").getAsDouble();
-            double rHipY = pose.get(24).getAsJsonObject().get("y").getAsDouble();
-
-            double lWristY = pose.get(15).getAsJsonObject().get("y").getAsDouble();
-            double rWristY = pose.get(16).getAsJsonObject().get("y").getAsDouble();
-            double lWristX = pose.get(15).getAsJsonObject().get("x").getAsDouble();
-            double rWristX = pose.get(16).getAsJsonObject().get("x").getAsDouble();
-            double lKneeX = pose.get(25).getAsJsonObject().get("x").getAsDouble();
-            double rKneeX = pose.get(26).getAsJsonObject().get("x").getAsDouble();
+        return engine.run(new StoolStepDetector());
+    }
+
+    static final class StoolStepDetector extends TimedDetector {
+        private boolean attempted = false;
+        private boolean usedSupport = false;
+        private boolean usedThigh = false;
+        private boolean completed = false;
+
+        StoolStepDetector() {
+            super("Stool Step", 15000);
+        }
+
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Stool Step test...");
+        }
+
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 29) return false;
+
+            double lAnkleY = frame.y(L_ANKLE);
+            double rAnkleY = frame.y(R_ANKLE);
+            double lKneeY = frame.y(L_KNEE);
+            double rKneeY = frame.y(R_KNEE);
+            double lHipY = frame.y(L_HIP);
+            double rHipY = frame.y(R_HIP);
+
+            double lWristY = frame.y(L_WRIST);
+            double rWristY = frame.y(R_WRIST);
+            double lWristX = frame.x(L_WRIST);
+            double rWristX = frame.x(R_WRIST);
+            double lKneeX = frame.x(L_KNEE);
+            double rKneeX = frame.x(R_KNEE);
 
             // Detect attempted step: one foot significantly raised
             if (!attempted && Math.abs(lAnkleY - rAnkleY) > 0.15) {
@@ -884,46 +1024,54 @@ public class CMASTest {
             // Detect completion: foot stays raised
             if (attempted && (lAnkleY < 0.6 || rAnkleY < 0.6)) {
                 completed = true;
-                break;
+                return true;
             }
-
-            Thread.sleep(200);
+            return false;
         }
 
-        return scoreStoolStep(attempted, usedSupport, usedThigh, completed);
+        @Override
+        public int score() {
+            return scoreStoolStep(attempted, usedSupport, usedThigh, completed);
+        }
     }
 
     // 14. Pick-up Object
 
     public static int runPickUpObjectTest() throws Exception {
-        System.out.println("Get ready for Pick-Up Object test...");
-        
-
-        boolean attempted = false;
-        boolean usedHeavySupport = false;
-        boolean usedLightSupport = false;
-        boolean completed = false;
-
-        long startTime = System.currentTimeMillis();
-        long timeout = 15000;
-
-        while (System.currentTimeMillis() - startTime < timeout) {
-            JsonObject data = getPoseData();
-            JsonArray pose = data.getAsJsonArray("cmas");
-            if (pose == null || pose.size() < 29) continue;
-
-            double lWristY = pose.get(15).getAsJsonObject().get("y").getAsDouble();
-            double rWristY = pose.get(16).getAsJsonObject().get("y").getAsDouble();
-            double lWristX = pose.get(15).getAsJsonObject().get("x").getAsDouble();
-            double rWristX = pose.get(16).getAsJsonObject().get("x").getAsDouble();
-
-            double lKneeY = pose.get(25).getAsJsonObject().get("y").getAsDouble();
-            double rKneeY = pose.get(26).getAsJsonObject().get("y").getAsDouble();
-            double lKneeX = pose.get(25).getAsJsonObject().get("x").getAsDouble();
-            double rKneeX = pose.get(26).getAsJsonObject().get("x").getAsDouble();
-
-            double lAnkleY = pose.get(27).getAsJsonObject().get("y").getAsDouble();
-            double rAnkleY = pose.get(28).getAsJsonObject().get("y").getAsDouble();
+        return engine.run(new PickUpObjectDetector());
+    }
+
+    static final class PickUpObjectDetector extends TimedDetector {
+        private boolean attempted = false;
+        private boolean usedHeavySupport = false;
+        private boolean usedLightSupport = false;
+        private boolean completed = false;
+
+        PickUpObjectDetector() {
+            super("Pick-Up Object", 15000);
+        }
+
+        @Override
+        public void onStart() {
+            System.out.println("Get ready for Pick-Up Object test...");
+        }
+
+        @Override
+        protected boolean update(PoseFrame frame, long now) {
+            if (frame.getLandmarkCount() < 29) return false;
+
+            double lWristY = frame.y(L_WRIST);
+            double rWristY = frame.y(R_WRIST);
+            double lWristX = frame.x(L_WRIST);
+            double rWristX = frame.x(R_WRIST);
+
+            double lKneeY = frame.y(L_KNEE);
+            double rKneeY = frame.y(R_KNEE);
+            double lKneeX = frame.x(L_KNEE);
+            double rKneeX = frame.x(R_KNEE);
+
+            double lAnkleY = frame.y(L_ANKLE);
+            double rAnkleY = frame.y(R_ANKLE);
             double floorY = Math.max(lAnkleY, rAnkleY);
 
             // Detect reach attempt (at least one hand gets close to floor)
@@ -947,12 +1095,14 @@ public class CMASTest {
             // Detect pick-up success (wrist down then rises back up quickly)
             if (attempted && lWristY < 0.6 && rWristY < 0.6) {
                 completed = true;
-                break;
+                return true;
             }
-
-            Thread.sleep(200);
+            return false;
         }
 
-        return scorePickUpObject(attempted, usedHeavySupport, usedLightSupport, completed);
+        @Override
+        public int score() {
+            return scorePickUpObject(attempted, usedHeavySupport, usedLightSupport, completed);
+        }
     }
 }
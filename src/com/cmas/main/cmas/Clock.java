@@ -0,0 +1,22 @@
+package com.cmas.main.cmas;
+
+// Time as the pose pipeline sees it. The system clock runs at camera speed; a VirtualClock
+// lets batch jobs and benchmarks run the same code as fast as the CPU allows.
+public interface Clock {
+
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long millis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public void sleep(long ms) throws InterruptedException {
+            if (ms > 0) Thread.sleep(ms);
+        }
+    };
+
+    long millis();
+
+    void sleep(long ms) throws InterruptedException;
+}
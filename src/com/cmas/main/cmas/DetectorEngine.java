@@ -0,0 +1,352 @@
+package com.cmas.main.cmas;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+// Drives every active PoseDetector from one dispatcher thread. Each frame from the
+// pose source is handed to all of them in turn; a detector leaves once it is decided.
+public class DetectorEngine {
+
+    private static final int FRAME_TIMEOUT_MS = 5000;
+    private static final int IDLE_CHECK_MS = 100;
+
+    private final Supplier<? extends PoseSource> sources;
+    // Set when every source is read from this stream
+    private final PoseStream stream;
+    private final Clock clock;
+    // Detectors submitted together stay together so they start on the same frame
+    private final BlockingQueue<List<ActiveDetector>> pending = new LinkedBlockingQueue<>();
+
+    // The frames last handed to the detectors, for anything that wants to show what they saw
+    private final PoseRingBuffer dispatched = new PoseRingBuffer(4);
+
+    private volatile int activeCount = 0;
+    // Latency of the last busy period and of the last decided run of each item, by detector name.
+    // Published on /metrics rather than printed: System.out ends up in the patient's feedback panel.
+    private volatile FrameLatency lastSession;
+    private final Map<String, FrameLatency> lastItems = new ConcurrentHashMap<>();
+    private Thread dispatcher;
+    private boolean stopped = false;
+
+    // Reads the live pose stream on the system clock
+    public DetectorEngine(PoseStream stream) {
+        this(() -> new LivePoseSource(stream), Clock.SYSTEM, stream);
+    }
+
+    // A source is opened each time the engine goes from idle to busy and closed when it is idle again
+    public DetectorEngine(Supplier<? extends PoseSource> sources, Clock clock) {
+        this(sources, clock, null);
+    }
+
+    private DetectorEngine(Supplier<? extends PoseSource> sources, Clock clock, PoseStream stream) {
+        this.sources = sources;
+        this.clock = clock;
+        this.stream = stream;
+        FrameLatency.publish("all", () -> lastSession);
+    }
+
+    // The pose stream the detectors read from, or null if they use another source
+    public PoseStream getStream() {
+        return stream;
+    }
+
+    // Runs detectors on the calling thread until each is decided or the source runs out.
+    // A detector still undecided at the end is scored on what it saw, as if its time had run out.
+    public static List<Integer> evaluate(PoseSource source, List<? extends PoseDetector> detectors)
+            throws IOException, InterruptedException {
+        List<ActiveDetector> active = new ArrayList<>();
+        List<ActiveDetector> all = new ArrayList<>();
+        for (PoseDetector detector : detectors) {
+            all.add(new ActiveDetector(detector, null));
+        }
+        begin(all, active);
+
+        PoseFrame frame = new PoseFrame();
+        while (!active.isEmpty()) {
+            if (source.next(frame, FRAME_TIMEOUT_MS)) {
+                dispatch(frame, active, null, null);
+            } else if (source.isExhausted()) {
+                finishAll(active);
+            } else {
+                throw new IOException(noFrameMessage(source));
+            }
+        }
+
+        List<Integer> scores = new ArrayList<>();
+        for (ActiveDetector detector : all) {
+            try {
+                scores.add(detector.result.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+        return scores;
+    }
+
+    public CompletableFuture<Integer> submit(PoseDetector detector) {
+        return submitAll(List.of(detector)).get(0);
+    }
+
+    // Starts all detectors on the same frame; results are in submission order
+    public List<CompletableFuture<Integer>> submitAll(List<? extends PoseDetector> detectors) {
+        List<ActiveDetector> batch = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (PoseDetector detector : detectors) {
+            ActiveDetector active = new ActiveDetector(detector, new FrameLatency());
+            batch.add(active);
+            results.add(active.result);
+        }
+
+        synchronized (this) {
+            if (stopped) {
+                failAll(batch, new InterruptedException("Detector engine was shut down"));
+            } else {
+                pending.add(batch);
+                ensureStarted();
+            }
+        }
+        return results;
+    }
+
+    // Submits the detector and waits for its score
+    public int run(PoseDetector detector) throws Exception {
+        return await(submit(detector));
+    }
+
+    // Waits for a submitted detector, rethrowing whatever ended it early
+    public static int await(CompletableFuture<Integer> result) throws Exception {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    // The last frame handed to the detectors; false if none has been yet
+    public boolean readLastFrame(PoseFrame dst) {
+        return dispatched.readLatest(dst);
+    }
+
+    // Stops the dispatcher for good; anything running or still queued fails with InterruptedException,
+    // as nothing else will ever take it off this engine
+    public synchronized void shutdown() {
+        stopped = true;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher = null;
+        }
+
+        List<ActiveDetector> queued = new ArrayList<>();
+        List<ActiveDetector> batch;
+        while ((batch = pending.poll()) != null) {
+            queued.addAll(batch);
+        }
+        failAll(queued, new InterruptedException("Detector engine was shut down"));
+    }
+
+    private synchronized void ensureStarted() {
+        if (dispatcher != null) return;
+        dispatcher = new Thread(this::dispatchLoop, "CMAS Detector Dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    private void dispatchLoop() {
+        List<ActiveDetector> active = new ArrayList<>();
+        PoseFrame frame = new PoseFrame();
+        PoseSource source = null;
+        FrameLatency session = null;
+        long lastFrameAt = 0;
+
+        while (true) {
+            try {
+                if (active.isEmpty()) {
+                    // Idle: drop the source, block until something is submitted, then open a fresh one
+                    endSession(session);
+                    close(source);
+                    source = null;
+                    begin(pending.take(), active);
+                    session = new FrameLatency();
+                    source = sources.get();
+                    lastFrameAt = clock.millis();
+                }
+
+                List<ActiveDetector> next;
+                while ((next = pending.poll()) != null) {
+                    begin(next, active);
+                }
+
+                if (source.next(frame, IDLE_CHECK_MS)) {
+                    lastFrameAt = clock.millis();
+                    dispatch(frame, active, session, lastItems);
+                    dispatched.publish(frame);
+                } else if (source.isExhausted()) {
+                    finishAll(active);
+                } else if (clock.millis() - lastFrameAt >= FRAME_TIMEOUT_MS) {
+                    failAll(active, new IOException(noFrameMessage(source)));
+                }
+            } catch (InterruptedException e) {
+                failAll(active, e);
+                close(source);
+                return;
+            } catch (Exception e) {
+                // The source itself failed; the next submission gets a fresh one
+                failAll(active, e);
+            }
+
+            active.removeIf(a -> a.result.isDone());
+            activeCount = active.size();
+        }
+    }
+
+    private void endSession(FrameLatency session) {
+        if (session == null || session.get(FrameLatency.Segment.EVALUATE).getCount() == 0) return;
+        lastSession = session;
+    }
+
+    private static String noFrameMessage(PoseSource source) {
+        return "No pose frame received from " + source.describe() + " in " + FRAME_TIMEOUT_MS + " ms";
+    }
+
+    private static void close(PoseSource source) {
+        if (source == null) return;
+        try {
+            source.close();
+        } catch (IOException e) {
+            System.err.println("Could not close pose source " + source.describe() + ": " + e.getMessage());
+        }
+    }
+
+    private static void begin(List<ActiveDetector> batch, List<ActiveDetector> list) {
+        for (ActiveDetector active : batch) {
+            if (active.result.isDone()) continue;
+            try {
+                active.event.begin();
+                active.detector.onStart();
+                list.add(active);
+            } catch (RuntimeException e) {
+                active.fail(e);
+            }
+        }
+    }
+
+    // session and items are null when latency is not being tracked
+    private static void dispatch(PoseFrame frame, List<ActiveDetector> list, FrameLatency session,
+                                 Map<String, FrameLatency> items) {
+        long dispatched = session != null && frame.receiveMicros > 0 ? FrameLatency.nowMicros() : 0;
+        long evaluated = 0;
+
+        for (Iterator<ActiveDetector> it = list.iterator(); it.hasNext(); ) {
+            ActiveDetector active = it.next();
+            if (active.result.isDone()) {
+                it.remove();
+                continue;
+            }
+
+            try {
+                long start = System.nanoTime();
+                boolean decided = active.detector.onFrame(frame);
+                long elapsed = System.nanoTime() - start;
+                evaluated += elapsed;
+                active.frames++;
+                if (active.latency != null) {
+                    active.latency.recordFrame(frame, dispatched);
+                    active.latency.recordEvaluation(elapsed);
+                }
+
+                if (decided) {
+                    it.remove();
+                    int score = active.detector.score();
+                    if (active.latency != null) {
+                        long decidedAt = FrameLatency.nowMicros();
+                        active.latency.recordDecision(frame, decidedAt);
+                        if (session != null) session.recordDecision(frame, decidedAt);
+                        String name = active.detector.getName();
+                        if (items != null && items.put(name, active.latency) == null) {
+                            FrameLatency.publish(name, () -> items.get(name));
+                        }
+                    }
+                    active.finish(score, "decided");
+                }
+            } catch (RuntimeException e) {
+                it.remove();
+                active.fail(e);
+            }
+        }
+
+        if (session != null) {
+            session.recordFrame(frame, dispatched);
+            session.recordEvaluation(evaluated);
+        }
+    }
+
+    // The source ran out: whatever is left is scored as it stands
+    private static void finishAll(List<ActiveDetector> list) {
+        for (ActiveDetector active : list) {
+            try {
+                active.finish(active.detector.score(), "source exhausted");
+            } catch (RuntimeException e) {
+                active.fail(e);
+            }
+        }
+        list.clear();
+    }
+
+    private static void failAll(List<ActiveDetector> list, Exception cause) {
+        for (ActiveDetector active : list) {
+            active.fail(cause);
+        }
+        list.clear();
+    }
+
+    private static class ActiveDetector {
+        final PoseDetector detector;
+        final FrameLatency latency;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final ItemRunEvent event = new ItemRunEvent();
+        long frames = 0;
+
+        ActiveDetector(PoseDetector detector, FrameLatency latency) {
+            this.detector = detector;
+            this.latency = latency;
+        }
+
+        void finish(int score, String outcome) {
+            commit(score, outcome);
+            result.complete(score);
+        }
+
+        void fail(Throwable cause) {
+            commit(-1, "failed");
+            result.completeExceptionally(cause);
+        }
+
+        private void commit(int score, String outcome) {
+            if (!event.shouldCommit()) return;
+            event.item = detector.getName();
+            event.score = score;
+            event.frames = frames;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.cmas.main.cmas;
+
+import com.cmas.main.metrics.MetricsRegistry;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Where a pose frame's time goes between the camera and a CMAS decision, one histogram per segment.
+// Segments whose stamps a source does not provide (e.g. replayed recordings) are simply left empty.
+public class FrameLatency {
+
+    private static final int[] PUBLISHED_PERCENTILES = {50, 90, 99};
+
+    public enum Segment {
+        CAPTURE_TO_PUBLISH("capture->publish"),    // MediaPipe and payload building on the pose server
+        PUBLISH_TO_RECEIVE("publish->receive"),    // HTTP transport into this process
+        DECODE("decode"),
+        RECEIVE_TO_DISPATCH("receive->dispatch"),  // Decoded and waiting for the dispatcher to pick it up
+        EVALUATE("evaluate"),                      // Detector onFrame calls for one frame, console output included
+        CAPTURE_TO_DECISION("capture->decision");  // End to end, for the frame that decided an item
+
+        private final String label;
+
+        Segment(String label) {
+            this.label = label;
+        }
+    }
+
+    private final Map<Segment, LatencyHistogram> histograms = new EnumMap<>(Segment.class);
+
+    public FrameLatency() {
+        for (Segment segment : Segment.values()) {
+            histograms.put(segment, new LatencyHistogram());
+        }
+    }
+
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1000;
+    }
+
+    public LatencyHistogram get(Segment segment) {
+        return histograms.get(segment);
+    }
+
+    // Records the stamps a frame picked up on its way in; dispatchMicros is when the dispatcher took it
+    public void recordFrame(PoseFrame frame, long dispatchMicros) {
+        if (frame.publishMicros > 0 && frame.captureMicros > 0) {
+            record(Segment.CAPTURE_TO_PUBLISH, frame.publishMicros - frame.captureMicros);
+        }
+        if (frame.receiveMicros > 0) {
+            if (frame.publishMicros > 0) {
+                record(Segment.PUBLISH_TO_RECEIVE, frame.receiveMicros - frame.publishMicros);
+            }
+            histograms.get(Segment.DECODE).record(frame.decodeNanos);
+            record(Segment.RECEIVE_TO_DISPATCH, dispatchMicros - frame.receiveMicros - frame.decodeNanos / 1000);
+        }
+    }
+
+    public void recordEvaluation(long nanos) {
+        histograms.get(Segment.EVALUATE).record(nanos);
+    }
+
+    // Only meaningful for live frames, whose capture time is on the same clock as now
+    public void recordDecision(PoseFrame frame, long decidedMicros) {
+        if (frame.receiveMicros > 0 && frame.captureMicros > 0) {
+            record(Segment.CAPTURE_TO_DECISION, decidedMicros - frame.captureMicros);
+        }
+    }
+
+    private void record(Segment segment, long micros) {
+        histograms.get(segment).record(micros * 1000);
+    }
+
+    // Puts p50/p90/p99 of every segment on /metrics, labelled with the item. The supplier is read on
+    // each scrape, so the gauges follow whichever run it returns; nothing recorded yet shows as 0.
+    public static void publish(String item, Supplier<FrameLatency> latest) {
+        for (Segment segment : Segment.values()) {
+            for (int percent : PUBLISHED_PERCENTILES) {
+                MetricsRegistry.gauge("cmas_frame_latency_microseconds",
+                        "Pose frame latency percentiles per segment, for the last run of each CMAS item", () -> {
+                            FrameLatency latency = latest.get();
+                            return latency == null ? 0 : latency.get(segment).getPercentile(percent) / 1000;
+                        }, "item", item, "segment", segment.label, "quantile", String.valueOf(percent / 100.0));
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.cmas.main.cmas;
+
+import java.util.List;
+
+// Hands out a fixed list of frames back to back, as fast as they are asked for
+public class InMemoryPoseSource implements PoseSource {
+
+    private final List<PoseFrame> frames;
+    private int next = 0;
+
+    public InMemoryPoseSource(List<PoseFrame> frames) {
+        this.frames = frames;
+    }
+
+    @Override
+    public boolean next(PoseFrame dst, long timeoutMs) {
+        if (next >= frames.size()) return false;
+        dst.copyFrom(frames.get(next++));
+        return true;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return next >= frames.size();
+    }
+
+    @Override
+    public String describe() {
+        return frames.size() + " frames in memory";
+    }
+}
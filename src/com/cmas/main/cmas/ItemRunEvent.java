@@ -0,0 +1,28 @@
+package com.cmas.main.cmas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One CMAS item from onStart until it is scored or fails, committed on the dispatcher thread
+@Name("com.cmas.ItemRun")
+@Label("CMAS Item Run")
+@Category({"CMAS", "Assessment"})
+class ItemRunEvent extends Event {
+
+    @Label("Item")
+    String item;
+
+    @Label("Score")
+    @Description("-1 when the item failed instead of being scored")
+    int score = -1;
+
+    @Label("Frames Processed")
+    long frames;
+
+    @Label("Outcome")
+    @Description("decided, source exhausted or failed")
+    String outcome;
+}
@@ -0,0 +1,74 @@
+package com.cmas.main.cmas;
+
+import com.cmas.main.imageProcessing.PoseServerClient;
+
+import java.io.IOException;
+
+// Long-polls the pose server's JSON /latest-frame endpoint, for setups that cannot stream.
+// Each request asks for the frame after the last one seen and the server holds it until that
+// frame exists, so frames are picked up as soon as they are produced and never twice.
+public class JsonPollingPoseSource implements PoseSource {
+
+    public static final String DEFAULT_URL = "http://localhost:8080/latest-frame";
+    // Kept under the client's read timeout; a longer wait is split into several polls
+    private static final long MAX_WAIT_MS = 1000;
+
+    private final String url;
+    private final Clock clock;
+
+    private long lastSequence = 0;
+
+    public JsonPollingPoseSource(String url, Clock clock) {
+        this.url = url;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean next(PoseFrame dst, long timeoutMs) throws IOException, InterruptedException {
+        long deadline = clock.millis() + timeoutMs;
+
+        while (true) {
+            long remaining = deadline - clock.millis();
+            if (remaining <= 0) return false;
+
+            // The server also answers if its sequence went backwards, i.e. it was restarted
+            if (fetch(dst, Math.min(remaining, MAX_WAIT_MS)) && dst.sequence != lastSequence) {
+                lastSequence = dst.sequence;
+                return true;
+            }
+        }
+    }
+
+    // False if no new frame was produced within waitMs
+    private boolean fetch(PoseFrame dst, long waitMs) throws IOException, InterruptedException {
+        PoseFrameEvent event = new PoseFrameEvent();
+        event.begin();
+        byte[] body = PoseServerClient.get(url + "?after=" + lastSequence + "&timeoutMs=" + waitMs);
+        long received = FrameLatency.nowMicros();
+        long decodeStart = System.nanoTime();
+
+        if (body.length == 0 || !PoseJsonDecoder.decode(body, dst)) return false;
+
+        dst.decodeNanos = System.nanoTime() - decodeStart;
+        dst.receiveMicros = received;
+
+        if (event.shouldCommit()) {
+            event.source = url;
+            event.sequence = dst.sequence;
+            event.bytes = body.length;
+            event.decodeNanos = dst.decodeNanos;
+            event.commit();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return false;
+    }
+
+    @Override
+    public String describe() {
+        return url;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cmas.main.cmas;
+
+import com.cmas.main.metrics.MetricsRegistry;
+
+// Frames from a running PoseStream, starting with the next one it receives
+public class LivePoseSource implements PoseSource {
+
+    private static final MetricsRegistry.Counter FRAMES_DROPPED = MetricsRegistry.counter(
+            "cmas_pose_frames_dropped_total", "Pose frames overwritten in the ring before the detectors read them");
+
+    private final PoseStream stream;
+    private final PoseRingBuffer.Cursor cursor;
+
+    public LivePoseSource() {
+        this(PoseStream.shared());
+    }
+
+    public LivePoseSource(PoseStream stream) {
+        this.stream = stream;
+        this.cursor = stream.openCursor();
+    }
+
+    @Override
+    public boolean next(PoseFrame dst, long timeoutMs) throws InterruptedException {
+        long dropped = cursor.getDroppedFrames();
+        boolean received = cursor.await(dst, timeoutMs);
+        dropped = cursor.getDroppedFrames() - dropped;
+        if (dropped > 0) FRAMES_DROPPED.add(dropped);
+        return received;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return false;
+    }
+
+    @Override
+    public String describe() {
+        return stream.describe();
+    }
+
+    public long getDroppedFrames() {
+        return cursor.getDroppedFrames();
+    }
+}
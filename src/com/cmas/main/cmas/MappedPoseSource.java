@@ -0,0 +1,74 @@
+package com.cmas.main.cmas;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Frames from a SharedPoseBuffer the pose server writes into, starting with the next one
+// it publishes. Waiting for a frame spins briefly and then parks, like PoseRingBuffer.Cursor.
+public class MappedPoseSource implements PoseSource {
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final SharedPoseBuffer buffer;
+    private long next;
+    private long droppedFrames = 0;
+
+    public MappedPoseSource(Path file) throws IOException {
+        this.buffer = new SharedPoseBuffer(file);
+        this.next = buffer.latestPosition() + 1;
+    }
+
+    @Override
+    public boolean next(PoseFrame dst, long timeoutMs) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        int tries = 0;
+
+        while (!poll(dst)) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (System.nanoTime() - deadline >= 0) return false;
+
+            if (tries++ < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        return true;
+    }
+
+    private boolean poll(PoseFrame dst) throws IOException {
+        while (true) {
+            long head = buffer.latestPosition();
+            if (next > head) return false;
+
+            long oldest = head - buffer.capacity() + 1;
+            if (next < oldest) {
+                droppedFrames += oldest - next;
+                next = oldest;
+            }
+
+            if (buffer.read(next, dst)) {
+                dst.receiveMicros = FrameLatency.nowMicros();
+                next++;
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return false;
+    }
+
+    @Override
+    public String describe() {
+        return "mmap:" + buffer.getFile();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+}
@@ -0,0 +1,17 @@
+package com.cmas.main.cmas;
+
+// One CMAS item evaluated frame by frame. The DetectorEngine calls every method
+// from its dispatcher thread, so implementations need no locking of their own.
+public interface PoseDetector {
+
+    String getName();
+
+    // Called once when the engine picks the item up, before its first frame
+    void onStart();
+
+    // Returns true once the item is decided and needs no more frames
+    boolean onFrame(PoseFrame frame);
+
+    // Called once after the last frame
+    int score();
+}
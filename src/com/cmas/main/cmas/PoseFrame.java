@@ -0,0 +1,127 @@
+package com.cmas.main.cmas;
+
+// One MediaPipe pose result, kept as one float array per coordinate (indexed by
+// the landmark constants below) so a single instance can be refilled frame after
+// frame without allocating.
+public class PoseFrame {
+
+    public static final int LANDMARK_COUNT = 33;
+
+    // MediaPipe Pose landmark indices
+    public static final int NOSE = 0;
+    public static final int L_EYE_INNER = 1;
+    public static final int L_EYE = 2;
+    public static final int L_EYE_OUTER = 3;
+    public static final int R_EYE_INNER = 4;
+    public static final int R_EYE = 5;
+    public static final int R_EYE_OUTER = 6;
+    public static final int L_EAR = 7;
+    public static final int R_EAR = 8;
+    public static final int MOUTH_L = 9;
+    public static final int MOUTH_R = 10;
+    public static final int L_SHOULDER = 11;
+    public static final int R_SHOULDER = 12;
+    public static final int L_ELBOW = 13;
+    public static final int R_ELBOW = 14;
+    public static final int L_WRIST = 15;
+    public static final int R_WRIST = 16;
+    public static final int L_PINKY = 17;
+    public static final int R_PINKY = 18;
+    public static final int L_INDEX = 19;
+    public static final int R_INDEX = 20;
+    public static final int L_THUMB = 21;
+    public static final int R_THUMB = 22;
+    public static final int L_HIP = 23;
+    public static final int R_HIP = 24;
+    public static final int L_KNEE = 25;
+    public static final int R_KNEE = 26;
+    public static final int L_ANKLE = 27;
+    public static final int R_ANKLE = 28;
+    public static final int L_HEEL = 29;
+    public static final int R_HEEL = 30;
+    public static final int L_FOOT_INDEX = 31;
+    public static final int R_FOOT_INDEX = 32;
+
+    // Pairs of landmarks joined by a line when the pose is drawn as a skeleton
+    public static final int[][] BONES = {
+            {L_SHOULDER, R_SHOULDER}, {L_SHOULDER, L_ELBOW}, {L_ELBOW, L_WRIST},
+            {R_SHOULDER, R_ELBOW}, {R_ELBOW, R_WRIST}, {L_SHOULDER, L_HIP}, {R_SHOULDER, R_HIP},
+            {L_HIP, R_HIP}, {L_HIP, L_KNEE}, {L_KNEE, L_ANKLE}, {R_HIP, R_KNEE}, {R_KNEE, R_ANKLE},
+            {L_ANKLE, L_HEEL}, {L_HEEL, L_FOOT_INDEX}, {L_ANKLE, L_FOOT_INDEX},
+            {R_ANKLE, R_HEEL}, {R_HEEL, R_FOOT_INDEX}, {R_ANKLE, R_FOOT_INDEX}
+    };
+
+    final float[] x = new float[LANDMARK_COUNT];
+    final float[] y = new float[LANDMARK_COUNT];
+    final float[] z = new float[LANDMARK_COUNT];
+    final float[] visibility = new float[LANDMARK_COUNT];
+
+    long sequence;
+    long captureMicros;
+    int landmarkCount;
+
+    // Timing stamps, 0 when the source does not provide them
+    long publishMicros;
+    long receiveMicros;
+    long decodeNanos;
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    // Capture time on the pose server, in epoch microseconds
+    public long getCaptureMicros() {
+        return captureMicros;
+    }
+
+    public long captureMillis() {
+        return captureMicros / 1000;
+    }
+
+    // When the pose server sent the frame out, in epoch microseconds
+    public long getPublishMicros() {
+        return publishMicros;
+    }
+
+    // When this process finished reading the frame off the wire, in epoch microseconds
+    public long getReceiveMicros() {
+        return receiveMicros;
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    public int getLandmarkCount() {
+        return landmarkCount;
+    }
+
+    public void copyFrom(PoseFrame other) {
+        sequence = other.sequence;
+        captureMicros = other.captureMicros;
+        landmarkCount = other.landmarkCount;
+        publishMicros = other.publishMicros;
+        receiveMicros = other.receiveMicros;
+        decodeNanos = other.decodeNanos;
+        System.arraycopy(other.x, 0, x, 0, LANDMARK_COUNT);
+        System.arraycopy(other.y, 0, y, 0, LANDMARK_COUNT);
+        System.arraycopy(other.z, 0, z, 0, LANDMARK_COUNT);
+        System.arraycopy(other.visibility, 0, visibility, 0, LANDMARK_COUNT);
+    }
+
+    public float x(int landmark) {
+        return x[landmark];
+    }
+
+    public float y(int landmark) {
+        return y[landmark];
+    }
+
+    public float z(int landmark) {
+        return z[landmark];
+    }
+
+    public float visibility(int landmark) {
+        return visibility[landmark];
+    }
+}
@@ -0,0 +1,103 @@
+package com.cmas.main.cmas;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// Binary pose frame layout shared with VideoProcessing.py (big-endian, fixed size per version):
+//   magic 'CMPF' (int), version (short), landmark count (short), sequence (long), capture time in epoch us (long),
+//   publish time in epoch us (long, version 2 only),
+//   then 33 x, 33 y, 33 z and 33 visibility values as float32.
+// Version 1 frames, e.g. older recordings, still decode with no publish time.
+public class PoseFrameCodec {
+
+    public static final int MAGIC = 0x434D5046;
+    public static final int VERSION = 2;
+    public static final int V1_HEADER_BYTES = 24;
+    public static final int HEADER_BYTES = 32;
+    public static final int BODY_BYTES = 4 * PoseFrame.LANDMARK_COUNT * Float.BYTES;
+    public static final int FRAME_BYTES = HEADER_BYTES + BODY_BYTES;
+
+    // Reused for every frame read through this codec
+    private final byte[] scratch = new byte[FRAME_BYTES];
+    private final ByteBuffer buffer = ByteBuffer.wrap(scratch);
+
+    // Reads the next frame into dst. Returns false on a clean end of stream.
+    public boolean readFrame(InputStream in, PoseFrame dst) throws IOException {
+        if (!readPacket(in)) return false;
+        decodePacket(dst);
+        return true;
+    }
+
+    // Reads the next frame's bytes without decoding them, so the caller can time the two apart
+    public boolean readPacket(InputStream in) throws IOException {
+        int read = in.readNBytes(scratch, 0, V1_HEADER_BYTES);
+        if (read == 0) return false;
+        if (read < V1_HEADER_BYTES) {
+            throw new EOFException("Truncated pose frame: " + read + " of " + V1_HEADER_BYTES + " header bytes");
+        }
+
+        int version = (scratch[4] & 0xFF) << 8 | (scratch[5] & 0xFF);
+        int rest = (version == 1 ? 0 : HEADER_BYTES - V1_HEADER_BYTES) + BODY_BYTES;
+        read = in.readNBytes(scratch, V1_HEADER_BYTES, rest);
+        if (read < rest) {
+            throw new EOFException("Truncated pose frame: " + (V1_HEADER_BYTES + read) + " of "
+                    + (V1_HEADER_BYTES + rest) + " bytes");
+        }
+        return true;
+    }
+
+    // Decodes the frame last read by readPacket
+    public void decodePacket(PoseFrame dst) throws IOException {
+        buffer.clear();
+        decode(buffer, dst);
+    }
+
+    public static void decode(ByteBuffer src, PoseFrame dst) throws IOException {
+        int magic = src.getInt();
+        int version = src.getShort();
+        if (magic != MAGIC || version < 1 || version > VERSION) {
+            throw new IOException("Not a pose frame (magic " + Integer.toHexString(magic) + ", version " + version + ")");
+        }
+
+        dst.landmarkCount = Math.min(src.getShort(), PoseFrame.LANDMARK_COUNT);
+        dst.sequence = src.getLong();
+        dst.captureMicros = src.getLong();
+        dst.publishMicros = version >= 2 ? src.getLong() : 0;
+        // Receive and decode stamps belong to whoever read the bytes, not to the frame on the wire
+        dst.receiveMicros = 0;
+        dst.decodeNanos = 0;
+
+        readFloats(src, dst.x);
+        readFloats(src, dst.y);
+        readFloats(src, dst.z);
+        readFloats(src, dst.visibility);
+    }
+
+    public static void encode(PoseFrame src, ByteBuffer dst) {
+        dst.putInt(MAGIC);
+        dst.putShort((short) VERSION);
+        dst.putShort((short) src.landmarkCount);
+        dst.putLong(src.sequence);
+        dst.putLong(src.captureMicros);
+        dst.putLong(src.publishMicros);
+
+        writeFloats(dst, src.x);
+        writeFloats(dst, src.y);
+        writeFloats(dst, src.z);
+        writeFloats(dst, src.visibility);
+    }
+
+    private static void readFloats(ByteBuffer src, float[] dst) {
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = src.getFloat();
+        }
+    }
+
+    private static void writeFloats(ByteBuffer dst, float[] src) {
+        for (float v : src) {
+            dst.putFloat(v);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.cmas.main.cmas;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// One pose frame taken off the wire. For the binary stream the event covers the decode
+// only (the wait for the packet is idle time); for JSON polling it covers the whole request.
+@Name("com.cmas.PoseFrame")
+@Label("Pose Frame")
+@Category({"CMAS", "Pose"})
+@StackTrace(false)
+class PoseFrameEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("Sequence")
+    long sequence;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Decode Time")
+    @Timespan
+    long decodeNanos;
+}
@@ -0,0 +1,162 @@
+package com.cmas.main.cmas;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+// Reads the /latest-frame JSON built by capture_loop() straight into a PoseFrame with
+// Jackson's streaming parser. Only 'seq', the timestamps and the 'cmas' landmark list are
+// read; 'legs' and 'feet' repeat landmarks from 'cmas' and are skipped without being parsed
+// into anything, as is any other field. Parsing stops once the fields we need have been seen,
+// which saves tokenizing 'legs' and 'feet' only while the server keeps capture_loop()'s key
+// order (VideoProcessing.py turns off Flask's key sorting for this). Any order decodes the same.
+public class PoseJsonDecoder {
+
+    private static final JsonFactory factory = new JsonFactory();
+
+    private static final int SEQ = 1;
+    private static final int CAPTURED_AT = 2;
+    private static final int PUBLISHED_AT = 4;
+    private static final int CMAS = 8;
+    private static final int ALL_FIELDS = SEQ | CAPTURED_AT | PUBLISHED_AT | CMAS;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private PoseJsonDecoder() {
+    }
+
+    // False while the server has not processed a frame yet (it sends {} until then)
+    public static boolean decode(byte[] json, PoseFrame dst) throws IOException {
+        try (JsonParser parser = factory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Pose payload is not a JSON object");
+            }
+
+            long captured = 0;
+            long published = 0;
+            int count = 0;
+            int seen = 0;
+
+            while (seen != ALL_FIELDS && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "seq" -> {
+                        dst.sequence = parser.getLongValue();
+                        seen |= SEQ;
+                    }
+                    case "captured_at" -> {
+                        captured = value == JsonToken.VALUE_NULL ? 0 : parser.getLongValue();
+                        seen |= CAPTURED_AT;
+                    }
+                    case "published_at" -> {
+                        published = value == JsonToken.VALUE_NULL ? 0 : parser.getLongValue();
+                        seen |= PUBLISHED_AT;
+                    }
+                    case "cmas" -> {
+                        count = readLandmarks(parser, dst);
+                        seen |= CMAS;
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if ((seen & SEQ) == 0) return false;
+
+            // Stamps missing from the payload read as 0, never as the previous frame's
+            dst.captureMicros = captured;
+            dst.publishMicros = published;
+            dst.receiveMicros = 0;
+            dst.decodeNanos = 0;
+            for (int i = count; i < PoseFrame.LANDMARK_COUNT; i++) {
+                dst.x[i] = dst.y[i] = dst.z[i] = dst.visibility[i] = 0f;
+            }
+            dst.landmarkCount = count;
+            return true;
+        }
+    }
+
+    // Landmarks are taken in list order, as the list is built in MediaPipe's landmark order
+    private static int readLandmarks(JsonParser parser, PoseFrame dst) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "'cmas' is not a list of landmarks");
+        }
+
+        int count = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (count == PoseFrame.LANDMARK_COUNT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            float visibility = 0f;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "x" -> dst.x[count] = readFloat(parser);
+                    case "y" -> dst.y[count] = readFloat(parser);
+                    case "z" -> dst.z[count] = readFloat(parser);
+                    case "visibility" -> visibility = readFloat(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            dst.visibility[count++] = visibility;
+        }
+        return count;
+    }
+
+    // Parses the number from the parser's own character buffer instead of having Jackson build a
+    // String for each of the ~130 values. Python writes at most 17 significant digits, so the digits
+    // fit a long; the scaled result is within a double ulp, far below float precision. Anything
+    // unusual goes through Jackson.
+    private static float readFloat(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_NUMBER_FLOAT) return parser.getFloatValue();
+
+        char[] text = parser.getTextCharacters();
+        int i = parser.getTextOffset();
+        int end = i + parser.getTextLength();
+
+        boolean negative = text[i] == '-';
+        if (negative) i++;
+
+        long digits = 0;
+        int digitCount = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = text[i];
+            if (c >= '0' && c <= '9') {
+                if (digits != 0 || c != '0') digitCount++;
+                digits = digits * 10 + (c - '0');
+                if (fraction) scale--;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (i < end) {
+            // Exponent: 'e' or 'E', optional sign, digits
+            i++;
+            boolean negativeExponent = i < end && text[i] == '-';
+            if (i < end && (text[i] == '-' || text[i] == '+')) i++;
+            int exponent = 0;
+            for (; i < end && exponent < 1000; i++) {
+                exponent = exponent * 10 + (text[i] - '0');
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (digitCount > 18 || scale < -POWERS_OF_TEN.length + 1 || scale > POWERS_OF_TEN.length - 1) {
+            return parser.getFloatValue();
+        }
+
+        double value = scale < 0 ? digits / POWERS_OF_TEN[-scale] : digits * POWERS_OF_TEN[scale];
+        return (float) (negative ? -value : value);
+    }
+}
@@ -0,0 +1,9 @@
+package com.cmas.main.cmas;
+
+// A scripted movement and how long it takes to play out
+public record PoseMotion(String name, long durationMs, SyntheticPoseSource.Script script) {
+
+    public SyntheticPoseSource newSource(Clock clock, double fps) {
+        return new SyntheticPoseSource(clock, fps, durationMs, script);
+    }
+}
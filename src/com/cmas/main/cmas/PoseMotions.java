@@ -0,0 +1,328 @@
+package com.cmas.main.cmas;
+
+import static com.cmas.main.cmas.PoseFrame.*;
+
+// Scripted movements for each CMAS item, in the normalised image coordinates MediaPipe reports
+// (x to the right, y down). Parameters pick the outcome, e.g. how long the head is held up or
+// how many sit-ups are done, so scoring edge cases can be driven without a person on the floor.
+public class PoseMotions {
+
+    private static final double FOOT_LENGTH = 0.054;
+    // The rise detectors count someone as standing once the hips are above 0.45, so rising ends a little taller
+    private static final double STAND_UP = -0.13;
+
+    // A motion that should earn the best score the detector can give
+    public static PoseMotion forItem(CMASItem item) {
+        return switch (item) {
+            case HEAD_ELEVATION -> headLift(125_000);
+            case LEG_RAISE -> legRaise(2.5);
+            case LEG_LIFT_DURATION -> straightLegLift(90_000);
+            case SUPINE_TO_PRONE -> supineToProne(4000, true);
+            case SIT_UPS -> sitUps(6);
+            case SUPINE_TO_SIT -> supineToSit(2000);
+            case ARM_RAISE_STRAIGHTEN -> armRaise(0.1, true);
+            case ARM_RAISE_DURATION -> armRaiseHold(62_000);
+            case FLOOR_SIT -> floorSit(2000, 0);
+            case ALL_FOURS -> allFours(true, true, true);
+            case FLOOR_RISE -> floorRise(false, 0);
+            case CHAIR_RISE -> chairRise(false, false, 0);
+            case STOOL_STEP -> stoolStep(false, false);
+            case PICK_UP_OBJECT -> pickUpObject(false, false);
+        };
+    }
+
+    // #1 Lying down, head lifted after the 5 s get-ready period and held for holdMs
+    public static PoseMotion headLift(long holdMs) {
+        long liftAt = 6000;
+        return new PoseMotion("head lift " + holdMs + " ms", liftAt + holdMs + 2000, (ms, f) -> {
+            lying(f);
+            if (ms >= liftAt && ms < liftAt + holdMs) put(f, NOSE, 0.2, 0.6);
+        });
+    }
+
+    // #2 Right leg raised to the given height in foot lengths (over 1 clears the table, over 2 touches)
+    public static PoseMotion legRaise(double footLengths) {
+        return new PoseMotion("leg raise " + footLengths + " foot lengths", 4000, (ms, f) -> {
+            lying(f);
+            raiseRightFoot(f, footLengths * FOOT_LENGTH * ramp(ms, 1000, 1500));
+        });
+    }
+
+    // #3 Right leg held above one foot length for holdMs
+    public static PoseMotion straightLegLift(long holdMs) {
+        return new PoseMotion("straight leg lift " + holdMs + " ms", Math.min(holdMs + 3000, 125_000), (ms, f) -> {
+            lying(f);
+            double up = ramp(ms, 1000, 300) - ramp(ms, 1300 + holdMs, 300);
+            raiseRightFoot(f, 1.5 * FOOT_LENGTH * up);
+        });
+    }
+
+    // #4 Seen from above: roll onto the side, free the right arm, then finish prone, all within rollMs
+    public static PoseMotion supineToProne(long rollMs, boolean freesArm) {
+        long rolled = 500 + rollMs / 2;
+        return new PoseMotion("supine to prone " + rollMs + " ms", 500 + rollMs + 2000, (ms, f) -> {
+            standing(f);
+            double roll = ramp(ms, 500, rollMs / 2);
+            double shoulderHalf = lerp(0.1, 0.02, roll);
+            double hipHalf = lerp(0.08, 0.02, roll);
+            put(f, L_SHOULDER, 0.5 - shoulderHalf, 0.4);
+            put(f, R_SHOULDER, 0.5 + shoulderHalf, 0.4);
+            put(f, L_HIP, 0.5 - hipHalf, 0.6);
+            put(f, R_HIP, 0.5 + hipHalf, 0.6);
+
+            double wristX = 0.5 + shoulderHalf;
+            double wristY = 0.6;
+            if (freesArm && ms >= rolled) {
+                wristX = 0.75;
+                wristY = lerp(0.6, 0.4, ramp(ms, rolled, rollMs / 2));
+            }
+            put(f, R_WRIST, wristX, wristY);
+        });
+    }
+
+    // #5 Shoulders curled up to hip height count times, one every 3 s; the remaining attempts time out
+    public static PoseMotion sitUps(int count) {
+        long cycle = 3000;
+        long duration = 500 + 6 * cycle + Math.max(0, 6 - count) * 16_000L + 2000;
+        return new PoseMotion(count + " sit-ups", duration, (ms, f) -> {
+            lying(f);
+            double up = 0;
+            long t = ms - 500;
+            if (t >= 0 && t / cycle < count) {
+                long phase = t % cycle;
+                up = ramp(phase, 1000, 500) - ramp(phase, 2000, 500);
+            }
+            putY(f, L_HIP, R_HIP, 0.6);
+            putY(f, L_SHOULDER, R_SHOULDER, lerp(0.8, 0.6, up));
+        });
+    }
+
+    // #6 From lying flat to sitting up over sitMs, swaying slightly so a slow rise is not read as stalling
+    public static PoseMotion supineToSit(long sitMs) {
+        return new PoseMotion("supine to sit " + sitMs + " ms", 15_000, (ms, f) -> {
+            lying(f);
+            double sway = 0.01 * Math.sin(ms * 2 * Math.PI / 1000.0);
+            putY(f, L_HIP, R_HIP, 0.7);
+            // Shoulders clear the hips by the detector's 0.1 right as sitMs runs out, then straighten up
+            double shoulderY = lerp(0.7, 0.59, ramp(ms, 500, sitMs)) - 0.24 * ramp(ms, 500 + sitMs, 500);
+            putY(f, L_SHOULDER, R_SHOULDER, shoulderY + sway);
+        });
+    }
+
+    // #7 Both wrists raised to wristY in one movement; under 0.35 is above the shoulders, under 0.3 above the head
+    public static PoseMotion armRaise(double wristY, boolean straight) {
+        return new PoseMotion("arm raise to " + wristY + (straight ? " straight" : " bent"), 3000, (ms, f) -> {
+            standing(f);
+            if (ms >= 1000) raiseArms(f, wristY, straight);
+        });
+    }
+
+    // #8 Both arms held straight overhead for holdMs
+    public static PoseMotion armRaiseHold(long holdMs) {
+        return new PoseMotion("arm raise hold " + holdMs + " ms", Math.min(holdMs + 3000, 65_000), (ms, f) -> {
+            standing(f);
+            if (ms >= 1000 && ms < 1000 + holdMs) raiseArms(f, 0.15, true);
+        });
+    }
+
+    // #9 Standing to sitting on the floor over descentMs, with an optional pause halfway down
+    public static PoseMotion floorSit(long descentMs, long pauseMs) {
+        return new PoseMotion("floor sit " + descentMs + " ms", 400 + descentMs + pauseMs + 2000, (ms, f) -> {
+            standing(f);
+            lowerBody(f, lerp(0, 0.3, halting(ms, 400, descentMs, pauseMs)));
+        });
+    }
+
+    // #10 Into all fours, then head up, a crawl forward and a leg extended, each optional
+    public static PoseMotion allFours(boolean raisesHead, boolean crawls, boolean liftsLeg) {
+        return new PoseMotion("all fours", 9000, (ms, f) -> {
+            standing(f);
+            if (ms < 1000) {
+                // Lying prone
+                putY(f, L_WRIST, R_WRIST, 0.7);
+                putY(f, L_HIP, R_HIP, 0.75);
+                putY(f, L_KNEE, R_KNEE, 0.75);
+                putY(f, L_ANKLE, R_ANKLE, 0.76);
+                put(f, NOSE, 0.5, 0.74);
+                return;
+            }
+
+            float shift = crawls ? (float) (0.1 * ramp(ms, 5000, 1000)) : 0;
+            put(f, NOSE, 0.5 + shift, raisesHead && ms >= 3000 ? 0.45 : 0.62);
+            putY(f, L_SHOULDER, R_SHOULDER, 0.6);
+            putY(f, L_WRIST, R_WRIST, 0.8);
+            putY(f, L_HIP, R_HIP, 0.6);
+            putY(f, L_KNEE, R_KNEE, 0.8);
+            putY(f, L_ANKLE, R_ANKLE, 0.82);
+            f.x[L_HIP] += shift;
+            f.x[R_HIP] += shift;
+            f.x[L_WRIST] += shift;
+            f.x[R_WRIST] += shift;
+
+            if (liftsLeg && ms >= 7000) f.y[L_ANKLE] = 0.65f;
+        });
+    }
+
+    // #11 Sitting on the floor to standing, optionally pushing off the floor and pausing halfway
+    public static PoseMotion floorRise(boolean usesHands, long pauseMs) {
+        return new PoseMotion("floor rise", 600 + 3000 + pauseMs + 2000, (ms, f) -> {
+            standing(f);
+            double rise = halting(ms, 600, 3000, pauseMs);
+            lowerBody(f, lerp(0.3, STAND_UP, rise));
+            putY(f, L_KNEE, R_KNEE, lerp(0.8, 0.72, rise));
+            if (f.y[L_HIP] > 0.6) putY(f, L_WRIST, R_WRIST, usesHands ? 0.9 : f.y[L_KNEE] - 0.1);
+        });
+    }
+
+    // #12 Sitting in a chair to standing, optionally pushing on the thighs or the chair's side
+    public static PoseMotion chairRise(boolean usesThighs, boolean usesChairSide, long pauseMs) {
+        return new PoseMotion("chair rise", 600 + 2500 + pauseMs + 2000, (ms, f) -> {
+            standing(f);
+            double rise = halting(ms, 600, 2500, pauseMs);
+            lowerBody(f, lerp(0.23, STAND_UP, rise));
+            putY(f, L_KNEE, R_KNEE, lerp(0.75, 0.72, rise));
+
+            if (f.y[L_HIP] > 0.6) {
+                if (usesThighs) {
+                    put(f, L_WRIST, f.x[L_KNEE], f.y[L_KNEE] + 0.02);
+                    put(f, R_WRIST, f.x[R_KNEE], f.y[R_KNEE] + 0.02);
+                }
+                if (usesChairSide) put(f, L_WRIST, f.x[L_HIP] - 0.2, f.y[L_HIP]);
+            }
+        });
+    }
+
+    // #13 Right foot stepped up onto the stool, optionally leaning on a hand or the thigh
+    public static PoseMotion stoolStep(boolean usesSupport, boolean usesThigh) {
+        return new PoseMotion("stool step", 3000, (ms, f) -> {
+            standing(f);
+            // The knee comes up above the hip before the foot lands on the stool
+            f.y[R_KNEE] = (float) lerp(0.72, 0.53, ramp(ms, 1000, 500));
+            f.y[R_ANKLE] = (float) lerp(0.9, 0.55, ramp(ms, 1000, 1000));
+            if (usesSupport && ms >= 1000) f.y[L_WRIST] = 0.62f;
+            if (usesThigh && f.y[R_KNEE] < 0.54) put(f, R_WRIST, f.x[R_KNEE], f.y[R_KNEE] + 0.015);
+        });
+    }
+
+    // #14 Bend down to the floor and back up, optionally steadying on the knees or the floor
+    public static PoseMotion pickUpObject(boolean kneeSupport, boolean floorSupport) {
+        return new PoseMotion("pick up object", 4500, (ms, f) -> {
+            standing(f);
+            double reach = ramp(ms, 1000, 1000) - ramp(ms, 2500, 1000);
+            double wristY = lerp(0.5, floorSupport ? 0.96 : 0.88, reach);
+            double spread = kneeSupport ? 0 : 0.15;
+            put(f, L_WRIST, f.x[L_KNEE] - spread, wristY);
+            put(f, R_WRIST, f.x[R_KNEE] + spread, wristY);
+        });
+    }
+
+    // Facing the camera: nose at the top, arms by the sides, feet at the bottom
+    public static void standing(PoseFrame f) {
+        f.landmarkCount = LANDMARK_COUNT;
+        for (int i = 0; i < LANDMARK_COUNT; i++) {
+            f.z[i] = 0f;
+            f.visibility[i] = 1f;
+        }
+        put(f, NOSE, 0.5, 0.2);
+        for (int i = NOSE + 1; i < L_SHOULDER; i++) {
+            // Eyes, ears and mouth sit around the nose
+            put(f, i, 0.5 + (i % 2 == 0 ? 0.03 : -0.03), 0.19 + 0.005 * i);
+        }
+        put(f, L_SHOULDER, 0.42, 0.35);
+        put(f, R_SHOULDER, 0.58, 0.35);
+        put(f, L_ELBOW, 0.40, 0.45);
+        put(f, R_ELBOW, 0.60, 0.45);
+        put(f, L_WRIST, 0.39, 0.52);
+        put(f, R_WRIST, 0.61, 0.52);
+        for (int i = R_WRIST + 1; i < L_HIP; i++) {
+            // Pinky, index and thumb just past the wrist
+            put(f, i, i % 2 == 1 ? 0.38 : 0.62, 0.55);
+        }
+        put(f, L_HIP, 0.45, 0.55);
+        put(f, R_HIP, 0.55, 0.55);
+        put(f, L_KNEE, 0.45, 0.72);
+        put(f, R_KNEE, 0.55, 0.72);
+        put(f, L_ANKLE, 0.45, 0.9);
+        put(f, R_ANKLE, 0.55, 0.9);
+        put(f, L_HEEL, 0.45, 0.92);
+        put(f, R_HEEL, 0.55, 0.92);
+        put(f, L_FOOT_INDEX, 0.44, 0.93);
+        put(f, R_FOOT_INDEX, 0.56, 0.93);
+    }
+
+    // Lying on the back seen from the side, head to the left, toes pointing up
+    public static void lying(PoseFrame f) {
+        standing(f);
+        put(f, NOSE, 0.2, 0.7);
+        for (int i = NOSE + 1; i < L_SHOULDER; i++) {
+            put(f, i, 0.19 + 0.002 * i, 0.69);
+        }
+        putY(f, L_SHOULDER, R_SHOULDER, 0.72);
+        f.x[L_SHOULDER] = 0.29f;
+        f.x[R_SHOULDER] = 0.31f;
+        put(f, L_ELBOW, 0.38, 0.74);
+        put(f, R_ELBOW, 0.38, 0.74);
+        put(f, L_WRIST, 0.45, 0.74);
+        put(f, R_WRIST, 0.45, 0.74);
+        for (int i = R_WRIST + 1; i < L_HIP; i++) {
+            put(f, i, 0.47, 0.74);
+        }
+        put(f, L_HIP, 0.55, 0.72);
+        put(f, R_HIP, 0.55, 0.72);
+        put(f, L_KNEE, 0.7, 0.72);
+        put(f, R_KNEE, 0.7, 0.72);
+        put(f, L_ANKLE, 0.85, 0.72);
+        put(f, R_ANKLE, 0.85, 0.72);
+        put(f, L_HEEL, 0.86, 0.73);
+        put(f, R_HEEL, 0.86, 0.73);
+        put(f, L_FOOT_INDEX, 0.87, 0.72 - FOOT_LENGTH);
+        put(f, R_FOOT_INDEX, 0.87, 0.72 - FOOT_LENGTH);
+    }
+
+    private static void raiseRightFoot(PoseFrame f, double height) {
+        f.y[R_ANKLE] -= (float) height;
+        f.y[R_HEEL] -= (float) height;
+        f.y[R_FOOT_INDEX] -= (float) height;
+    }
+
+    private static void raiseArms(PoseFrame f, double wristY, boolean straight) {
+        double bend = straight ? 0 : 0.12;
+        put(f, L_WRIST, f.x[L_SHOULDER], wristY);
+        put(f, R_WRIST, f.x[R_SHOULDER], wristY);
+        put(f, L_ELBOW, f.x[L_SHOULDER] - bend, (f.y[L_SHOULDER] + wristY) / 2);
+        put(f, R_ELBOW, f.x[R_SHOULDER] + bend, (f.y[R_SHOULDER] + wristY) / 2);
+    }
+
+    // Moves everything from the hips up down by drop, as when squatting or sitting
+    private static void lowerBody(PoseFrame f, double drop) {
+        for (int i = 0; i <= R_HIP; i++) {
+            f.y[i] += (float) drop;
+        }
+    }
+
+    // 0 before startMs, 1 after the move and its halfway pause are done
+    private static double halting(long ms, long startMs, long moveMs, long pauseMs) {
+        long half = moveMs / 2;
+        return 0.5 * ramp(ms, startMs, half) + 0.5 * ramp(ms, startMs + half + pauseMs, moveMs - half);
+    }
+
+    private static double ramp(long ms, long startMs, long durationMs) {
+        if (ms <= startMs) return 0;
+        if (durationMs <= 0 || ms >= startMs + durationMs) return 1;
+        return (double) (ms - startMs) / durationMs;
+    }
+
+    private static double lerp(double from, double to, double t) {
+        return from + (to - from) * t;
+    }
+
+    private static void put(PoseFrame f, int landmark, double x, double y) {
+        f.x[landmark] = (float) x;
+        f.y[landmark] = (float) y;
+    }
+
+    private static void putY(PoseFrame f, int left, int right, double y) {
+        f.y[left] = (float) y;
+        f.y[right] = (float) y;
+    }
+}
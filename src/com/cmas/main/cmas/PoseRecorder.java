@@ -0,0 +1,73 @@
+package com.cmas.main.cmas;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+// Records every frame a pose source produces into a session file until stopped or the source runs out
+public class PoseRecorder {
+
+    private static final int FRAME_WAIT_MS = 100;
+
+    private final Path file;
+    private final Supplier<? extends PoseSource> sources;
+
+    private volatile boolean running = false;
+    private Thread writerThread;
+
+    // Records the shared live pose stream
+    public PoseRecorder(Path file) {
+        this(file, LivePoseSource::new);
+    }
+
+    public PoseRecorder(Path file, Supplier<? extends PoseSource> sources) {
+        this.file = file;
+        this.sources = sources;
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) return;
+
+        // Open the file up front so a bad path fails here rather than on the writer thread
+        PoseSessionWriter writer = new PoseSessionWriter(file);
+        PoseSource source = sources.get();
+
+        running = true;
+        writerThread = new Thread(() -> record(writer, source), "Pose Recorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Stops recording and waits for the file to be flushed
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.join();
+            writerThread = null;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private void record(PoseSessionWriter writer, PoseSource source) {
+        PoseFrame frame = new PoseFrame();
+
+        try (writer; source) {
+            while (running && !source.isExhausted()) {
+                if (source.next(frame, FRAME_WAIT_MS)) {
+                    writer.write(frame);
+                }
+            }
+            // Keep anything that arrived before stop()
+            while (source.next(frame, 0)) {
+                writer.write(frame);
+            }
+            System.out.println("Recorded " + writer.getFramesWritten() + " frames to " + file);
+        } catch (IOException e) {
+            System.err.println("Pose recording to " + file + " failed: " + e.getMessage());
+        } catch (InterruptedException ignored) {
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.cmas.main.cmas;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Recent pose frames written by one thread and read by any number of cursors without locks.
+// Each slot carries a stamp (the ring position it holds, or -1 while being rewritten) so a
+// reader can tell when the writer lapped it mid-copy and retry on a newer frame.
+public class PoseRingBuffer {
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final int capacity;
+    private final int mask;
+    private final PoseFrame[] slots;
+    private final AtomicLongArray stamps;
+
+    // Last ring position written, -1 before the first frame
+    private volatile long published = -1;
+
+    public PoseRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new PoseFrame[capacity];
+        this.stamps = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new PoseFrame();
+            stamps.set(i, -1);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long latestPosition() {
+        return published;
+    }
+
+    // Single writer only
+    public void publish(PoseFrame frame) {
+        long position = published + 1;
+        int index = (int) (position & mask);
+
+        stamps.set(index, -1);
+        VarHandle.storeStoreFence();
+        slots[index].copyFrom(frame);
+        stamps.set(index, position);
+
+        published = position;
+    }
+
+    // Copies the frame at a ring position into dst. Returns false if it is not written yet or already overwritten.
+    public boolean read(long position, PoseFrame dst) {
+        if (position < 0 || position > published) return false;
+
+        int index = (int) (position & mask);
+        if (stamps.get(index) != position) return false;
+
+        dst.copyFrom(slots[index]);
+        VarHandle.acquireFence();
+
+        return stamps.get(index) == position;
+    }
+
+    // Copies the newest frame into dst, retrying if the writer overtakes the copy. False before the first frame.
+    public boolean readLatest(PoseFrame dst) {
+        while (true) {
+            long position = published;
+            if (position < 0) return false;
+            if (read(position, dst)) return true;
+        }
+    }
+
+    // Starts reading at the next frame to be published
+    public Cursor newCursor() {
+        return new Cursor(published + 1);
+    }
+
+    public class Cursor {
+        private long next;
+        private long droppedFrames = 0;
+
+        private Cursor(long next) {
+            this.next = next;
+        }
+
+        // Copies the next unread frame into dst. Frames already overwritten are skipped and counted as dropped.
+        public boolean poll(PoseFrame dst) {
+            while (true) {
+                long head = published;
+                if (next > head) return false;
+
+                long oldest = head - capacity + 1;
+                if (next < oldest) {
+                    droppedFrames += oldest - next;
+                    next = oldest;
+                }
+
+                if (read(next, dst)) {
+                    next++;
+                    return true;
+                }
+            }
+        }
+
+        // Like poll, but waits up to timeoutMs for a frame to arrive
+        public boolean await(PoseFrame dst, long timeoutMs) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            int tries = 0;
+
+            while (!poll(dst)) {
+                if (Thread.interrupted()) throw new InterruptedException();
+                if (System.nanoTime() - deadline >= 0) return false;
+
+                if (tries++ < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+            return true;
+        }
+
+        // Copies the frame framesAgo before the last one this cursor returned (0 = that frame itself)
+        public boolean lookBack(int framesAgo, PoseFrame dst) {
+            return read(next - 1 - framesAgo, dst);
+        }
+
+        public long getDroppedFrames() {
+            return droppedFrames;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.cmas.main.cmas;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Reads back a session file written by PoseSessionWriter, one frame at a time
+public class PoseSessionReader implements Closeable {
+
+    private final InputStream in;
+    private final PoseFrameCodec codec = new PoseFrameCodec();
+
+    public PoseSessionReader(Path file) throws IOException {
+        this.in = new BufferedInputStream(Files.newInputStream(file), PoseFrameCodec.FRAME_BYTES * 64);
+    }
+
+    // Fills dst with the next recorded frame; false once the session is over
+    public boolean next(PoseFrame dst) throws IOException {
+        return codec.readFrame(in, dst);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
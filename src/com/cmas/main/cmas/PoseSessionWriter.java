@@ -0,0 +1,42 @@
+package com.cmas.main.cmas;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes a pose session file: the binary frames from /pose-stream?format=binary, back to back.
+// Each frame carries its own capture time, so the file replays on the original timeline.
+public class PoseSessionWriter implements Closeable {
+
+    public static final String FILE_EXTENSION = ".pose";
+
+    private final OutputStream out;
+    private final ByteBuffer buffer = ByteBuffer.allocate(PoseFrameCodec.FRAME_BYTES);
+    private long framesWritten = 0;
+
+    public PoseSessionWriter(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), PoseFrameCodec.FRAME_BYTES * 64);
+    }
+
+    public void write(PoseFrame frame) throws IOException {
+        buffer.clear();
+        PoseFrameCodec.encode(frame, buffer);
+        out.write(buffer.array(), 0, PoseFrameCodec.FRAME_BYTES);
+        framesWritten++;
+    }
+
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
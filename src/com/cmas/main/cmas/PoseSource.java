@@ -0,0 +1,22 @@
+package com.cmas.main.cmas;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Where pose frames come from: the live pose server, a recording, a generator or a list in memory.
+// Each source is read by one consumer at a time.
+public interface PoseSource extends Closeable {
+
+    // Fills dst with the next frame. Returns false if none arrived within timeoutMs or the source is exhausted.
+    boolean next(PoseFrame dst, long timeoutMs) throws IOException, InterruptedException;
+
+    // True once a finite source has handed out its last frame; live sources never run out
+    boolean isExhausted();
+
+    // Shown in errors, e.g. the URL or file the frames come from
+    String describe();
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,209 @@
+package com.cmas.main.cmas;
+
+import com.cmas.main.imageProcessing.PoseServerClient;
+import com.cmas.main.metrics.MetricsRegistry;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+// Keeps one connection open to the pose server's binary /pose-stream endpoint and
+// writes every frame it pushes into a ring buffer. Consumers read it through their
+// own cursors, so adding one adds no load on the pose server.
+//
+// When the pose server runs as our child process it can offer the same frames on a
+// Unix domain socket instead (see PythonServerController); the stream then reads
+// those and skips HTTP altogether.
+public class PoseStream {
+
+    private static final String DEFAULT_STREAM_URL = "http://localhost:8080/pose-stream?format=binary";
+    private static final int RING_CAPACITY = 256;
+    private static final int RECONNECT_DELAY_MS = 1000;
+
+    private static final MetricsRegistry.Counter FRAMES_RECEIVED = MetricsRegistry.counter(
+            "cmas_pose_frames_received_total", "Pose frames read from the pose server stream");
+    private static final MetricsRegistry.Counter FRAMES_MISSED = MetricsRegistry.counter(
+            "cmas_pose_frames_missed_total", "Pose frames the server produced that never reached the stream reader");
+    private static final MetricsRegistry.Counter FRAMES_DUPLICATE = MetricsRegistry.counter(
+            "cmas_pose_frames_duplicate_total", "Pose frames received twice and discarded");
+
+    private static PoseStream shared;
+
+    private final String streamUrl;
+    private final PoseRingBuffer ring = new PoseRingBuffer(RING_CAPACITY);
+
+    // Only written by the reader thread
+    private long lastSequence = 0;
+    private volatile long missedFrames = 0;
+    private volatile long duplicateFrames = 0;
+
+    private volatile boolean running = false;
+    private Thread readerThread;
+    // Closed by stop() to unblock a reader waiting on a silent server
+    private volatile InputStream current;
+    // Read instead of streamUrl while set
+    private volatile Path socketPath;
+
+    public PoseStream(String streamUrl) {
+        this.streamUrl = streamUrl;
+    }
+
+    // The stream every part of the app reads from the local pose server
+    public static synchronized PoseStream shared() {
+        if (shared == null) {
+            shared = new PoseStream(DEFAULT_STREAM_URL);
+        }
+        return shared;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        readerThread = new Thread(this::readLoop, "Pose Stream Reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (readerThread != null) {
+            readerThread.interrupt();
+            readerThread = null;
+        }
+        closeCurrent();
+    }
+
+    // Starts the reader if needed and returns a cursor positioned at the next frame
+    public PoseRingBuffer.Cursor openCursor() {
+        start();
+        return ring.newCursor();
+    }
+
+    // The newest frame read so far, without consuming anything; false before the first one
+    public boolean readLatest(PoseFrame dst) {
+        return ring.readLatest(dst);
+    }
+
+    public String getStreamUrl() {
+        return streamUrl;
+    }
+
+    // Switches to the pose server's Unix domain socket, or back to HTTP with null.
+    // The connection in use is dropped and the reader reconnects over the new transport.
+    public void useSocket(Path path) {
+        socketPath = path;
+        closeCurrent();
+    }
+
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    public String describe() {
+        Path path = socketPath;
+        return path != null ? "unix:" + path : streamUrl;
+    }
+
+    // Frames the pose server produced that never reached this reader
+    public long getMissedFrames() {
+        return missedFrames;
+    }
+
+    public long getDuplicateFrames() {
+        return duplicateFrames;
+    }
+
+    private void readLoop() {
+        PoseFrameCodec codec = new PoseFrameCodec();
+        PoseFrame incoming = new PoseFrame();
+
+        while (running) {
+            try {
+                Path path = socketPath;
+                current = path != null ? openSocket(path) : PoseServerClient.openStream(streamUrl);
+                if (!running || path != socketPath) closeCurrent();
+
+                try (InputStream in = new BufferedInputStream(current, PoseFrameCodec.FRAME_BYTES * 4)) {
+                    while (running && codec.readPacket(in)) {
+                        long received = FrameLatency.nowMicros();
+                        PoseFrameEvent event = new PoseFrameEvent();
+                        event.begin();
+                        long decodeStart = System.nanoTime();
+                        codec.decodePacket(incoming);
+                        incoming.decodeNanos = System.nanoTime() - decodeStart;
+                        incoming.receiveMicros = received;
+                        commit(event, incoming);
+                        publish(incoming);
+                    }
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                if (running) {
+                    System.err.println("Pose stream disconnected: " + e.getMessage());
+                }
+            } finally {
+                current = null;
+            }
+
+            if (!running) break;
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private static InputStream openSocket(Path path) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        // Closing this stream closes the channel, which also unblocks a read in progress
+        return Channels.newInputStream(channel);
+    }
+
+    private void closeCurrent() {
+        InputStream in = current;
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void commit(PoseFrameEvent event, PoseFrame frame) {
+        if (!event.shouldCommit()) return;
+        event.source = socketPath != null ? "unix-socket" : "pose-stream";
+        event.sequence = frame.sequence;
+        event.bytes = PoseFrameCodec.FRAME_BYTES;
+        event.decodeNanos = frame.decodeNanos;
+        event.commit();
+    }
+
+    private void publish(PoseFrame frame) {
+        FRAMES_RECEIVED.increment();
+        if (frame.sequence == lastSequence) {
+            duplicateFrames++;
+            FRAMES_DUPLICATE.increment();
+            return;
+        }
+        // A lower sequence means the pose server restarted and its numbering started over
+        if (frame.sequence > lastSequence && lastSequence > 0) {
+            long missed = frame.sequence - lastSequence - 1;
+            missedFrames += missed;
+            FRAMES_MISSED.add(missed);
+        }
+        lastSequence = frame.sequence;
+        ring.publish(frame);
+    }
+}
@@ -0,0 +1,67 @@
+package com.cmas.main.cmas;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Plays back a session file on the given clock, keeping the recorded gaps between frames.
+// On a VirtualClock the gaps cost nothing and the file plays as fast as it can be read.
+public class RecordedPoseSource implements PoseSource {
+
+    private final Path file;
+    private final Clock clock;
+    private final PoseSessionReader reader;
+    private final PoseFrame pending = new PoseFrame();
+
+    private boolean hasPending = false;
+    private boolean exhausted = false;
+    private long firstCaptureMillis = -1;
+    private long startedAt;
+
+    public RecordedPoseSource(Path file, Clock clock) throws IOException {
+        this.file = file;
+        this.clock = clock;
+        this.reader = new PoseSessionReader(file);
+    }
+
+    @Override
+    public boolean next(PoseFrame dst, long timeoutMs) throws IOException, InterruptedException {
+        if (!hasPending) {
+            if (exhausted || !reader.next(pending)) {
+                exhausted = true;
+                return false;
+            }
+            hasPending = true;
+        }
+
+        if (firstCaptureMillis < 0) {
+            firstCaptureMillis = pending.captureMillis();
+            startedAt = clock.millis();
+        }
+
+        long wait = startedAt + (pending.captureMillis() - firstCaptureMillis) - clock.millis();
+        if (wait > timeoutMs) {
+            clock.sleep(timeoutMs);
+            return false;
+        }
+        clock.sleep(wait);
+
+        dst.copyFrom(pending);
+        hasPending = false;
+        return true;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public String describe() {
+        return file.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
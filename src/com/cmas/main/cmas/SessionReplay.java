@@ -0,0 +1,70 @@
+package com.cmas.main.cmas;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.cmas.main.cmas.CMASScorer.totalScore;
+
+// Replays a recorded pose session through CMAS detectors as fast as it can be read.
+// Detectors time themselves from each frame's capture stamp, so results match a live run.
+public class SessionReplay {
+
+    public static int replay(Path session, PoseDetector detector) throws IOException {
+        return replayAll(session, List.of(detector)).get(0);
+    }
+
+    // Scores each item against the same recording; the map keeps the order items were given in
+    public static Map<CMASItem, Integer> replay(Path session, List<CMASItem> items) throws IOException {
+        List<PoseDetector> detectors = new ArrayList<>();
+        for (CMASItem item : items) {
+            detectors.add(item.newDetector());
+        }
+
+        List<Integer> results = replayAll(session, detectors);
+
+        Map<CMASItem, Integer> scores = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            scores.put(items.get(i), results.get(i));
+        }
+        return scores;
+    }
+
+    // Plays the recording on a virtual clock, so the recorded gaps between frames cost nothing
+    public static List<Integer> replayAll(Path session, List<? extends PoseDetector> detectors) throws IOException {
+        try (PoseSource source = new RecordedPoseSource(session, new VirtualClock(0))) {
+            return DetectorEngine.evaluate(source, detectors);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Replay of " + session + " interrupted");
+        }
+    }
+
+    // Usage: SessionReplay <session.pose> [ITEM ...]; with no items every CMAS item is scored
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SessionReplay <session" + PoseSessionWriter.FILE_EXTENSION + "> [ITEM ...]");
+            System.exit(2);
+        }
+
+        List<CMASItem> items = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            items.add(CMASItem.valueOf(args[i]));
+        }
+        if (items.isEmpty()) items = List.of(CMASItem.values());
+
+        long start = System.nanoTime();
+        Map<CMASItem, Integer> scores = replay(Path.of(args[0]), items);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        for (Map.Entry<CMASItem, Integer> entry : scores.entrySet()) {
+            System.out.println(entry.getKey().getLabel() + ": " + entry.getValue());
+        }
+        System.out.println("Total: " + totalScore(scores.values().stream().mapToInt(Integer::intValue).toArray())
+                + " (replayed in " + elapsedMs + " ms)");
+    }
+}
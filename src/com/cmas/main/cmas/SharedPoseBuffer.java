@@ -0,0 +1,110 @@
+package com.cmas.main.cmas;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A ring of pose frames in a memory-mapped file, written by the pose server process and
+// read here without any copying through the kernel. Big-endian throughout, like the frames:
+//
+//   header (64 bytes): magic 'CMPM' (u32), version (u16), slot count (u16), slot size (u32),
+//                      reserved (u32), last position written (i64, -1 before the first frame)
+//   slot i at 64 + i * slot size: stamp (i64), then one binary pose frame (see PoseFrameCodec)
+//
+// Each slot is a seqlock: the writer sets the stamp to 2p+1 while it rewrites the slot for
+// ring position p and to 2p+2 once done, so a reader that sees the same even stamp before
+// and after copying knows it got the whole frame.
+public class SharedPoseBuffer {
+
+    public static final int MAGIC = 0x434D504D;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 64;
+    public static final int SLOT_BYTES = 576;
+    public static final int DEFAULT_SLOTS = 64;
+
+    private static final int PUBLISHED_OFFSET = 16;
+    private static final int STAMP_BYTES = 8;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    // Positioned per read, so one instance serves one reader thread
+    private final ByteBuffer view;
+    private final int slots;
+    private final int slotBytes;
+
+    // Maps an existing buffer for reading
+    public SharedPoseBuffer(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Not a shared pose buffer: " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int magic = buffer.getInt(0);
+        int version = buffer.getShort(4);
+        slots = buffer.getShort(6) & 0xFFFF;
+        slotBytes = buffer.getInt(8);
+        if (magic != MAGIC || version != VERSION || slots == 0 || slotBytes < STAMP_BYTES + PoseFrameCodec.FRAME_BYTES
+                || buffer.capacity() < HEADER_BYTES + (long) slots * slotBytes) {
+            throw new IOException("Not a shared pose buffer: " + file);
+        }
+        view = buffer.duplicate();
+    }
+
+    // Creates (or resets) an empty buffer for the pose server to attach to
+    public static void create(Path file, int slots) throws IOException {
+        long size = HEADER_BYTES + (long) slots * SLOT_BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            header.putInt(0, MAGIC);
+            header.putShort(4, (short) VERSION);
+            header.putShort(6, (short) slots);
+            header.putInt(8, SLOT_BYTES);
+            LONGS.setRelease(header, PUBLISHED_OFFSET, -1L);
+            header.force();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int capacity() {
+        return slots;
+    }
+
+    public long latestPosition() {
+        return (long) LONGS.getAcquire(buffer, PUBLISHED_OFFSET);
+    }
+
+    // Copies the frame at a ring position into dst. Returns false if it is not written yet,
+    // already overwritten, or was being rewritten while we copied it.
+    public boolean read(long position, PoseFrame dst) throws IOException {
+        if (position < 0) return false;
+
+        int offset = HEADER_BYTES + (int) (position % slots) * slotBytes;
+        long stamp = 2 * position + 2;
+        if ((long) LONGS.getAcquire(buffer, offset) != stamp) return false;
+
+        view.position(offset + STAMP_BYTES);
+        try {
+            PoseFrameCodec.decode(view, dst);
+        } catch (IOException e) {
+            // A torn copy can fail to decode; it only counts as bad data if the slot did not move
+            if ((long) LONGS.getAcquire(buffer, offset) != stamp) return false;
+            throw e;
+        }
+        VarHandle.acquireFence();
+
+        return (long) LONGS.getAcquire(buffer, offset) == stamp;
+    }
+}
@@ -0,0 +1,372 @@
+package com.cmas.main.cmas;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.cmas.main.cmas.PoseFrame.*;
+
+// Stand-in for VideoProcessing.py that plays scripted motions instead of reading a camera.
+// Serves the same /latest-frame, /pose-stream and /video_feed endpoints at any frame rate,
+// so CMASTest and WebcamPanel can be load tested without a person in front of a webcam.
+//
+// Usage: SyntheticPoseServer [-port 8080] [-fps 30] [-item ITEM ...]
+public class SyntheticPoseServer {
+
+    private static final int VIDEO_WIDTH = 640;
+    private static final int VIDEO_HEIGHT = 480;
+    private static final int REPORT_INTERVAL_MS = 5000;
+    private static final long MAX_LONG_POLL_MS = 10_000;
+
+    private final int port;
+    private final double fps;
+    private final List<PoseMotion> motions;
+
+    private final Object lock = new Object();
+    private Published latest = new Published(0, null, "{}".getBytes(StandardCharsets.UTF_8), null);
+    private final AtomicInteger videoClients = new AtomicInteger();
+    private volatile long framesPublished = 0;
+
+    private volatile boolean running = false;
+    private HttpServer server;
+    private ExecutorService executor;
+    private Thread generator;
+
+    public SyntheticPoseServer(int port, double fps, List<PoseMotion> motions) {
+        this.port = port;
+        this.fps = fps;
+        this.motions = motions;
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) return;
+
+        // Headers and body go out as separate writes; without this each keep-alive response
+        // waits ~40 ms on the client's delayed ACK. Read once, when the first server is created.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/latest-frame", this::latestFrame);
+        server.createContext("/pose-stream", this::poseStream);
+        server.createContext("/video_feed", this::videoFeed);
+        // Streaming responses hold a thread each for as long as the client stays connected
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+
+        running = true;
+        generator = new Thread(this::generate, "Synthetic Pose Generator");
+        generator.setDaemon(true);
+        generator.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (generator != null) {
+            generator.interrupt();
+            generator = null;
+        }
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    public long getFramesPublished() {
+        return framesPublished;
+    }
+
+    // Plays the motions one after another, over and over, with one running sequence number
+    private void generate() {
+        PoseFrame frame = new PoseFrame();
+        long sequence = 0;
+
+        try {
+            while (running) {
+                for (PoseMotion motion : motions) {
+                    System.out.println("Playing " + motion.name() + " at " + fps + " fps");
+                    try (SyntheticPoseSource source = motion.newSource(Clock.SYSTEM, fps)) {
+                        while (running && source.next(frame, REPORT_INTERVAL_MS)) {
+                            frame.sequence = ++sequence;
+                            frame.publishMicros = FrameLatency.nowMicros();
+                            publish(frame);
+                        }
+                    }
+                    if (!running) return;
+                }
+            }
+        } catch (InterruptedException ignored) {
+        } catch (IOException e) {
+            System.err.println("Synthetic pose generator stopped: " + e.getMessage());
+        }
+    }
+
+    private void publish(PoseFrame frame) {
+        ByteBuffer packet = ByteBuffer.allocate(PoseFrameCodec.FRAME_BYTES);
+        PoseFrameCodec.encode(frame, packet);
+        byte[] json = toJson(frame).getBytes(StandardCharsets.UTF_8);
+        // Rendering and JPEG encoding only pay off while someone is watching
+        byte[] jpeg = videoClients.get() > 0 ? render(frame) : null;
+
+        synchronized (lock) {
+            latest = new Published(latest.version() + 1, packet.array(), json, jpeg);
+            lock.notifyAll();
+        }
+        framesPublished++;
+    }
+
+    private long currentVersion() {
+        synchronized (lock) {
+            return latest.version();
+        }
+    }
+
+    private Published awaitNewer(long seen) throws InterruptedException {
+        synchronized (lock) {
+            while (latest.version() == seen) {
+                lock.wait();
+            }
+            return latest;
+        }
+    }
+
+    // Waits at most timeoutMs for a version other than seen; null if none came
+    private Published awaitNewer(long seen, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (lock) {
+            while (latest.version() == seen) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) return null;
+                lock.wait(remaining);
+            }
+            return latest;
+        }
+    }
+
+    // ?after=<seq>&timeoutMs=<ms> holds the request until a frame other than <seq> exists,
+    // like VideoProcessing.py, and answers 204 if none came in time
+    private void latestFrame(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getQuery());
+        byte[] body;
+        try {
+            if (query.containsKey("after")) {
+                long timeoutMs = Math.min(Long.parseLong(query.getOrDefault("timeoutMs", "1000")), MAX_LONG_POLL_MS);
+                Published frame = awaitNewer(Long.parseLong(query.get("after")), timeoutMs);
+                body = frame == null ? null : frame.json();
+            } else {
+                synchronized (lock) {
+                    body = latest.json();
+                }
+            }
+        } catch (NumberFormatException e) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        } catch (InterruptedException e) {
+            // The server is stopping
+            exchange.close();
+            return;
+        }
+
+        if (body == null) {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) params.put(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+        return params;
+    }
+
+    private void poseStream(HttpExchange exchange) throws IOException {
+        boolean binary = "binary".equals(parseQuery(exchange.getRequestURI().getQuery()).get("format"));
+
+        exchange.getResponseHeaders().set("Content-Type", binary ? "application/octet-stream" : "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            long seen = currentVersion();
+            while (running) {
+                Published frame = awaitNewer(seen);
+                seen = frame.version();
+                if (binary) {
+                    out.write(frame.packet());
+                } else {
+                    out.write(frame.json());
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        } catch (IOException | InterruptedException ignored) {
+            // Client went away or the server is stopping
+        }
+    }
+
+    private void videoFeed(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "multipart/x-mixed-replace; boundary=frame");
+        exchange.sendResponseHeaders(200, 0);
+
+        videoClients.incrementAndGet();
+        try (OutputStream out = exchange.getResponseBody()) {
+            long seen = currentVersion();
+            while (running) {
+                Published frame = awaitNewer(seen);
+                seen = frame.version();
+                if (frame.jpeg() == null) continue;
+
+                out.write(("--frame\r\nContent-Type: image/jpeg\r\nContent-Length: " + frame.jpeg().length + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.write(frame.jpeg());
+                out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+        } catch (IOException | InterruptedException ignored) {
+        } finally {
+            videoClients.decrementAndGet();
+        }
+    }
+
+    // Same shape as capture_loop() builds: 'seq', 'captured_at', the 'cmas' list and the legs/feet copies
+    static String toJson(PoseFrame frame) {
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\"seq\":").append(frame.getSequence())
+                .append(",\"captured_at\":").append(frame.getCaptureMicros())
+                .append(",\"published_at\":").append(frame.getPublishMicros())
+                .append(",\"cmas\":[");
+        for (int i = 0; i < frame.getLandmarkCount(); i++) {
+            if (i > 0) json.append(',');
+            appendPoint(json, frame, i);
+        }
+        json.append("],\"legs\":{\"left_leg\":{");
+        appendNamed(json, frame, new String[]{"hip", "knee", "ankle"}, new int[]{L_HIP, L_KNEE, L_ANKLE});
+        json.append("},\"right_leg\":{");
+        appendNamed(json, frame, new String[]{"hip", "knee", "ankle"}, new int[]{R_HIP, R_KNEE, R_ANKLE});
+        json.append("}},\"feet\":{\"left_foot\":{");
+        appendNamed(json, frame, new String[]{"heel", "toe"}, new int[]{L_HEEL, L_FOOT_INDEX});
+        json.append("},\"right_foot\":{");
+        appendNamed(json, frame, new String[]{"heel", "toe"}, new int[]{R_HEEL, R_FOOT_INDEX});
+        return json.append("}}}").toString();
+    }
+
+    private static void appendNamed(StringBuilder json, PoseFrame frame, String[] names, int[] landmarks) {
+        if (frame.getLandmarkCount() < LANDMARK_COUNT) return;
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) json.append(',');
+            json.append('"').append(names[i]).append("\":");
+            appendPoint(json, frame, landmarks[i]);
+        }
+    }
+
+    private static void appendPoint(StringBuilder json, PoseFrame frame, int i) {
+        json.append("{\"id\":").append(i)
+                .append(",\"x\":").append(frame.x(i))
+                .append(",\"y\":").append(frame.y(i))
+                .append(",\"z\":").append(frame.z(i))
+                .append(",\"visibility\":").append(frame.visibility(i))
+                .append('}');
+    }
+
+    private static byte[] render(PoseFrame frame) {
+        BufferedImage image = new BufferedImage(VIDEO_WIDTH, VIDEO_HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(Color.DARK_GRAY);
+        g.fillRect(0, 0, VIDEO_WIDTH, VIDEO_HEIGHT);
+
+        g.setColor(Color.WHITE);
+        g.setStroke(new BasicStroke(3f));
+        for (int[] bone : BONES) {
+            g.drawLine(px(frame.x(bone[0])), py(frame.y(bone[0])), px(frame.x(bone[1])), py(frame.y(bone[1])));
+        }
+        g.setColor(Color.RED);
+        for (int i = 0; i < frame.getLandmarkCount(); i++) {
+            g.fillOval(px(frame.x(i)) - 3, py(frame.y(i)) - 3, 6, 6);
+        }
+        g.dispose();
+
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream(32 * 1024);
+        try {
+            ImageIO.write(image, "jpg", jpeg);
+        } catch (IOException e) {
+            return null;
+        }
+        return jpeg.toByteArray();
+    }
+
+    private static int px(float x) {
+        return Math.round(x * VIDEO_WIDTH);
+    }
+
+    private static int py(float y) {
+        return Math.round(y * VIDEO_HEIGHT);
+    }
+
+    private record Published(long version, byte[] packet, byte[] json, byte[] jpeg) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 8080;
+        double fps = 30;
+        List<PoseMotion> motions = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-port" -> port = Integer.parseInt(args[++i]);
+                case "-fps" -> fps = Double.parseDouble(args[++i]);
+                case "-item" -> motions.add(PoseMotions.forItem(CMASItem.valueOf(args[++i])));
+                default -> {
+                    System.err.println("Usage: SyntheticPoseServer [-port 8080] [-fps 30] [-item ITEM ...]");
+                    System.exit(2);
+                }
+            }
+        }
+        if (motions.isEmpty()) {
+            for (CMASItem item : CMASItem.values()) {
+                motions.add(PoseMotions.forItem(item));
+            }
+        }
+
+        SyntheticPoseServer server = new SyntheticPoseServer(port, fps, motions);
+        server.start();
+        System.out.println("Synthetic pose server on http://localhost:" + port + " at " + fps + " fps");
+
+        long last = 0;
+        while (true) {
+            Thread.sleep(REPORT_INTERVAL_MS);
+            long now = server.getFramesPublished();
+            System.out.println((now - last) * 1000 / REPORT_INTERVAL_MS + " frames/s published");
+            last = now;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.cmas.main.cmas;
+
+// Generates frames from a script at a fixed rate, stamped with the clock's time
+public class SyntheticPoseSource implements PoseSource {
+
+    // Poses the frame for a point in the script; landmarks not set keep their previous values
+    @FunctionalInterface
+    public interface Script {
+        void pose(long elapsedMs, PoseFrame frame);
+    }
+
+    private final Clock clock;
+    private final Script script;
+    private final double frameIntervalMs;
+    private final long durationMs;
+    private final PoseFrame frame = new PoseFrame();
+
+    private long startedAt = -1;
+    private long framesGenerated = 0;
+    private boolean exhausted = false;
+
+    // durationMs <= 0 keeps generating until closed
+    public SyntheticPoseSource(Clock clock, double fps, long durationMs, Script script) {
+        this.clock = clock;
+        this.script = script;
+        this.frameIntervalMs = 1000.0 / fps;
+        this.durationMs = durationMs;
+        frame.landmarkCount = PoseFrame.LANDMARK_COUNT;
+    }
+
+    @Override
+    public boolean next(PoseFrame dst, long timeoutMs) throws InterruptedException {
+        if (exhausted) return false;
+        if (startedAt < 0) startedAt = clock.millis();
+
+        long elapsed = (long) (framesGenerated * frameIntervalMs);
+        if (durationMs > 0 && elapsed > durationMs) {
+            exhausted = true;
+            return false;
+        }
+
+        long wait = startedAt + elapsed - clock.millis();
+        if (wait > timeoutMs) {
+            clock.sleep(timeoutMs);
+            return false;
+        }
+        clock.sleep(wait);
+
+        framesGenerated++;
+        frame.sequence = framesGenerated;
+        frame.captureMicros = (startedAt + elapsed) * 1000;
+        script.pose(elapsed, frame);
+        dst.copyFrom(frame);
+        return true;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public String describe() {
+        return "synthetic poses at " + Math.round(1000.0 / frameIntervalMs) + " fps";
+    }
+}
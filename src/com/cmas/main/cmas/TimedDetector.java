@@ -0,0 +1,36 @@
+package com.cmas.main.cmas;
+
+// Base for items with an overall time limit, measured in frame capture time from
+// the first frame the item sees. A frame past the limit ends the item unprocessed.
+public abstract class TimedDetector implements PoseDetector {
+
+    private final String name;
+    private final long timeoutMs;
+
+    protected long startMillis = -1;
+    protected long lastFrameMillis = 0;
+
+    // timeoutMs <= 0 means the item decides for itself when it is done
+    protected TimedDetector(String name, long timeoutMs) {
+        this.name = name;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public final boolean onFrame(PoseFrame frame) {
+        long now = frame.captureMillis();
+        if (startMillis < 0) startMillis = now;
+
+        if (timeoutMs > 0 && now - startMillis >= timeoutMs) return true;
+
+        lastFrameMillis = now;
+        return update(frame, now);
+    }
+
+    protected abstract boolean update(PoseFrame frame, long now);
+}
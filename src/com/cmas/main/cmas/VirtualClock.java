@@ -0,0 +1,26 @@
+package com.cmas.main.cmas;
+
+// A clock that only moves when told to. Sleeping advances it instantly, so anything
+// paced by it runs at full speed while still seeing the right amount of time pass.
+public class VirtualClock implements Clock {
+
+    private volatile long now;
+
+    public VirtualClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    @Override
+    public long millis() {
+        return now;
+    }
+
+    @Override
+    public synchronized void sleep(long ms) {
+        if (ms > 0) now += ms;
+    }
+
+    public synchronized void advanceTo(long millis) {
+        if (millis > now) now = millis;
+    }
+}
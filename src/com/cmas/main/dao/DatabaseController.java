@@ -33,320 +33,398 @@ public class DatabaseController {
         }
     }
 
-    public void saveCMASScore(String patientID,int scoreValue) throws SQLException {
-        String sql = "INSERT INTO CMAS (patientID, score_date, score_type, score_value) VALUES (?, ?, ?)";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setDate(1, Date.valueOf(LocalDate.now()));
-            stmt.setString(2, "total");
-            stmt.setInt(3, scoreValue);
-            stmt.executeUpdate();
+    @FunctionalInterface
+    private interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface CountedSqlCall<T> {
+        T call(DatabaseQueryEvent event) throws SQLException;
+    }
+
+    // Runs one DatabaseController method as a DatabaseQueryEvent, so it is timed and recorded
+    // whether or not it succeeds. Rows are the size of a returned list, or 0/1 for a single value.
+    private static <T> T query(String name, SqlCall<T> call) throws SQLException {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start(name);
+        try {
+            T result = call.call();
+            event.done(result instanceof Collection<?> c ? c.size() : result == null ? 0 : 1);
+            return result;
+        } finally {
+            event.finish();
+        }
+    }
+
+    // For methods that run several statements into one result; the call adds the rows it read to the event
+    private static <T> T countedQuery(String name, CountedSqlCall<T> call) throws SQLException {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start(name);
+        try {
+            T result = call.call(event);
+            event.done(event.rows);
+            return result;
+        } finally {
+            event.finish();
         }
     }
 
+    // For INSERTs and UPDATEs; the call returns the update count
+    private static void update(String name, SqlCall<Integer> call) throws SQLException {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start(name);
+        try {
+            event.done(call.call());
+        } finally {
+            event.finish();
+        }
+    }
+
+    public void saveCMASScore(String patientID,int scoreValue) throws SQLException {
+        update("saveCMASScore", () -> {
+            String sql = "INSERT INTO CMAS (patientID, score_date, score_type, score_value) VALUES (?, ?, ?)";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setDate(1, Date.valueOf(LocalDate.now()));
+                stmt.setString(2, "total");
+                stmt.setInt(3, scoreValue);
+                return stmt.executeUpdate();
+            }
+        });
+    }
+
     public List<String> getPastScores() throws SQLException {
-        List<String> scores = new ArrayList<>();
-        String sql = "SELECT * FROM CMAS ORDER BY score_date DESC";
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                String row = String.format("Date: %s | Type: %s | Value: %d",
-                        rs.getString("score_date"),
-                        rs.getString("score_type"),
-                        rs.getInt("score_value"));
-                scores.add(row);
+        return query("getPastScores", () -> {
+            List<String> scores = new ArrayList<>();
+            String sql = "SELECT * FROM CMAS ORDER BY score_date DESC";
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    String row = String.format("Date: %s | Type: %s | Value: %d",
+                            rs.getString("score_date"),
+                            rs.getString("score_type"),
+                            rs.getInt("score_value"));
+                    scores.add(row);
+                }
             }
-        }
-        return scores;
+            return scores;
+        });
     }
 
     public void insertPatient(String patientId, String name) throws SQLException {
-        String sql = "INSERT INTO Patients (PatientID, Name) VALUES (?, ?)";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, patientId);
-            stmt.setString(2, name);
-            stmt.executeUpdate();
-        }
+        update("insertPatient", () -> {
+            String sql = "INSERT INTO Patients (PatientID, Name) VALUES (?, ?)";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, patientId);
+                stmt.setString(2, name);
+                return stmt.executeUpdate();
+            }
+        });
     }
 
     public List<String> getLabResultsByPatient(String patientId) throws SQLException {
-        List<String> results = new ArrayList<>();
-        String sql = "SELECT * FROM LabResult WHERE PatientID = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, patientId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    String result = String.format("ID: %s | Name: %s | Unit: %s",
-                            rs.getString("LabResultID"),
-                            rs.getString("ResultName"),
-                            rs.getString("Unit"));
-                    results.add(result);
+        return query("getLabResultsByPatient", () -> {
+            List<String> results = new ArrayList<>();
+            String sql = "SELECT * FROM LabResult WHERE PatientID = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, patientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String result = String.format("ID: %s | Name: %s | Unit: %s",
+                                rs.getString("LabResultID"),
+                                rs.getString("ResultName"),
+                                rs.getString("Unit"));
+                        results.add(result);
+                    }
                 }
             }
-        }
-        return results;
+            return results;
+        });
     }
 
     public void insertMeasurement(String measurementId, String labResultId, String dateTime, String value) throws SQLException {
-        String sql = "INSERT INTO Measurement (MeasurementID, LabResultID, DateTime, Value) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, measurementId);
-            stmt.setString(2, labResultId);
-            stmt.setString(3, dateTime);
-            stmt.setString(4, value);
-            stmt.executeUpdate();
-        }
+        update("insertMeasurement", () -> {
+            String sql = "INSERT INTO Measurement (MeasurementID, LabResultID, DateTime, Value) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, measurementId);
+                stmt.setString(2, labResultId);
+                stmt.setString(3, dateTime);
+                stmt.setString(4, value);
+                return stmt.executeUpdate();
+            }
+        });
     }
 
     public String getFirstLabResultIdForPatient(String patientId) throws SQLException {
-        String sql = "SELECT LabResultID FROM LabResults_EN WHERE PatientID = ? LIMIT 1";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, patientId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("LabResultID");
+        return query("getFirstLabResultIdForPatient", () -> {
+            String sql = "SELECT LabResultID FROM LabResults_EN WHERE PatientID = ? LIMIT 1";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, patientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getString("LabResultID");
+                    }
                 }
             }
-        }
-        return null;
+            return null;
+        });
     }
 
     // Fetch CMAS scores with date and type
     public List<Map<String, Object>> getAllCMASScores() throws SQLException {
-        List<Map<String, Object>> result = new ArrayList<>();
-        String sql = "SELECT * FROM CMAS ORDER BY score_date DESC";
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                Map<String, Object> row = new HashMap<>();
-                row.put("date", rs.getDate("score_date"));
-                row.put("type", rs.getString("score_type"));
-                row.put("value", rs.getInt("score_value"));
-                result.add(row);
+        return query("getAllCMASScores", () -> {
+            List<Map<String, Object>> result = new ArrayList<>();
+            String sql = "SELECT * FROM CMAS ORDER BY score_date DESC";
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("date", rs.getDate("score_date"));
+                    row.put("type", rs.getString("score_type"));
+                    row.put("value", rs.getInt("score_value"));
+                    result.add(row);
+                }
             }
-        }
-        return result;
+            return result;
+        });
     }
 
     // Fetch measurements joined with result names and units
     public List<Map<String, String>> getDetailedLabMeasurements(String patientId) throws SQLException {
-        List<Map<String, String>> data = new ArrayList<>();
-        String sql = """
-        SELECT lr.ResultName, lr.Unit, m.DateTime, m.Value
-        FROM Measurement m
-        JOIN LabResult lr ON lr.LabResultID = m.LabResultID
-        WHERE lr.PatientID = ?
-        ORDER BY m.DateTime DESC
-    """;
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, patientId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Map<String, String> entry = new HashMap<>();
-                    entry.put("name", rs.getString("ResultName"));
-                    entry.put("unit", rs.getString("Unit"));
-                    entry.put("value", rs.getString("Value"));
-                    entry.put("datetime", rs.getString("DateTime"));
-                    data.add(entry);
+        return query("getDetailedLabMeasurements", () -> {
+            List<Map<String, String>> data = new ArrayList<>();
+            String sql = """
+            SELECT lr.ResultName, lr.Unit, m.DateTime, m.Value
+            FROM Measurement m
+            JOIN LabResult lr ON lr.LabResultID = m.LabResultID
+            WHERE lr.PatientID = ?
+            ORDER BY m.DateTime DESC
+        """;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, patientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Map<String, String> entry = new HashMap<>();
+                        entry.put("name", rs.getString("ResultName"));
+                        entry.put("unit", rs.getString("Unit"));
+                        entry.put("value", rs.getString("Value"));
+                        entry.put("datetime", rs.getString("DateTime"));
+                        data.add(entry);
+                    }
                 }
             }
-        }
-        return data;
+            return data;
+        });
     }
 
     // Get basic patient info
     public String getPatientName(String patientId) throws SQLException {
-        String sql = "SELECT Name FROM Patients WHERE PatientID = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, patientId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getString("Name");
+        return query("getPatientName", () -> {
+            String sql = "SELECT Name FROM Patients WHERE PatientID = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, patientId);
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    return rs.getString("Name");
+                }
             }
-        }
-        return null;
+            return null;
+        });
     }
 
 
     // Get CMAS scores for a specific patient
     public List<Map<String, Object>> getCmasScoresForPatient(String patientId) throws SQLException {
-        List<Map<String, Object>> results = new ArrayList<>();
-        String sql = "SELECT score_date, score_value FROM CMAS WHERE PatientID = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, patientId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    row.put("date", rs.getString("score_date"));
-                    row.put("score", rs.getInt("score_value"));
-                    results.add(row);
+        return query("getCmasScoresForPatient", () -> {
+            List<Map<String, Object>> results = new ArrayList<>();
+            String sql = "SELECT score_date, score_value FROM CMAS WHERE PatientID = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, patientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Map<String, Object> row = new HashMap<>();
+                        row.put("date", rs.getString("score_date"));
+                        row.put("score", rs.getInt("score_value"));
+                        results.add(row);
+                    }
                 }
             }
-        }
-        return results;
+            return results;
+        });
     }
 
     public Map<String, Object> getFullPatientOverview(String patientId, boolean detailed) throws SQLException {
-        Map<String, Object> data = new HashMap<>();
-
-        // Patient name
-        String sqlPatient = "SELECT Name FROM Patients WHERE PatientID = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sqlPatient)) {
-            stmt.setString(1, patientId.trim());
-            ResultSet rs = stmt.executeQuery();
-            data.put("name", rs.next() ? rs.getString("Name") : "");
-        }
-
-        // LabResults_EN entries
-        List<Map<String, String>> labResults = new ArrayList<>();
-        String sqlLab = """
-        SELECT LabResultID, LabResultGroupID, ResultName_English, Unit
-        FROM LabResults_EN
-        WHERE PatientID = ?
-    """;
-
-        try (PreparedStatement stmt = conn.prepareStatement(sqlLab)) {
-            stmt.setString(1, patientId.trim());
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Map<String, String> result = new HashMap<>();
-                result.put("labResultId", rs.getString("LabResultID"));
-                result.put("labResultGroupId", rs.getString("LabResultGroupID"));
-                result.put("resultNameEnglish", rs.getString("ResultName_English"));
-                result.put("unit", rs.getString("Unit"));
-                labResults.add(result);
-            }
-        }
+        return countedQuery("getFullPatientOverview", event -> {
+            Map<String, Object> data = new HashMap<>();
 
-        // Get group names for all modes
-        Map<String, String> groupIdToName = new HashMap<>();
-        String sqlGroups = "SELECT LabResultGroupID, GroupName FROM LabResultGroup";
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sqlGroups)) {
-            while (rs.next()) {
-                groupIdToName.put(rs.getString("LabResultGroupID"), rs.getString("GroupName"));
+            // Patient name
+            String sqlPatient = "SELECT Name FROM Patients WHERE PatientID = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sqlPatient)) {
+                stmt.setString(1, patientId.trim());
+                ResultSet rs = stmt.executeQuery();
+                data.put("name", rs.next() ? rs.getString("Name") : "");
             }
-        }
-
-        // Measurements
-        List<Map<String, String>> measurementEntries = new ArrayList<>();
 
-        for (Map<String, String> result : labResults) {
-            String labResultId = result.get("labResultId");
-            String groupId = result.get("labResultGroupId");
+            // LabResults_EN entries
+            List<Map<String, String>> labResults = new ArrayList<>();
+            String sqlLab = """
+            SELECT LabResultID, LabResultGroupID, ResultName_English, Unit
+            FROM LabResults_EN
+            WHERE PatientID = ?
+        """;
 
-            String sqlMeas = "SELECT DateTime, Value FROM Measurement WHERE LabResultID = ? ORDER BY DateTime DESC";
-            try (PreparedStatement stmt = conn.prepareStatement(sqlMeas)) {
-                stmt.setString(1, labResultId);
+            try (PreparedStatement stmt = conn.prepareStatement(sqlLab)) {
+                stmt.setString(1, patientId.trim());
                 ResultSet rs = stmt.executeQuery();
                 while (rs.next()) {
-                    Map<String, String> row = new HashMap<>();
-                    row.put("datetime", rs.getString("DateTime"));
-                    row.put("value", rs.getString("Value"));
-                    row.put("unit", result.get("unit"));
-                    row.put("name", result.get("resultNameEnglish"));
-                    row.put("labResultId", detailed ? labResultId : null);
-                    row.put("groupId", groupId);
-                    measurementEntries.add(row);
+                    Map<String, String> result = new HashMap<>();
+                    result.put("labResultId", rs.getString("LabResultID"));
+                    result.put("labResultGroupId", rs.getString("LabResultGroupID"));
+                    result.put("resultNameEnglish", rs.getString("ResultName_English"));
+                    result.put("unit", rs.getString("Unit"));
+                    labResults.add(result);
+                }
+            }
+
+            // Get group names for all modes
+            Map<String, String> groupIdToName = new HashMap<>();
+            String sqlGroups = "SELECT LabResultGroupID, GroupName FROM LabResultGroup";
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sqlGroups)) {
+                while (rs.next()) {
+                    groupIdToName.put(rs.getString("LabResultGroupID"), rs.getString("GroupName"));
+                }
+            }
+
+            // Measurements
+            List<Map<String, String>> measurementEntries = new ArrayList<>();
+
+            for (Map<String, String> result : labResults) {
+                String labResultId = result.get("labResultId");
+                String groupId = result.get("labResultGroupId");
+
+                String sqlMeas = "SELECT DateTime, Value FROM Measurement WHERE LabResultID = ? ORDER BY DateTime DESC";
+                try (PreparedStatement stmt = conn.prepareStatement(sqlMeas)) {
+                    stmt.setString(1, labResultId);
+                    ResultSet rs = stmt.executeQuery();
+                    while (rs.next()) {
+                        Map<String, String> row = new HashMap<>();
+                        row.put("datetime", rs.getString("DateTime"));
+                        row.put("value", rs.getString("Value"));
+                        row.put("unit", result.get("unit"));
+                        row.put("name", result.get("resultNameEnglish"));
+                        row.put("labResultId", detailed ? labResultId : null);
+                        row.put("groupId", groupId);
+                        measurementEntries.add(row);
+                    }
                 }
             }
-        }
 
-        data.put("medications", measurementEntries);
-        data.put("groupNames", groupIdToName);
-        return data;
+            data.put("medications", measurementEntries);
+            data.put("groupNames", groupIdToName);
+            event.addRows(1 + labResults.size() + groupIdToName.size() + measurementEntries.size());
+            return data;
+        });
     }
 
     public List<String[]> getMatchingPatientsByName(String name) throws Exception {
-        List<String[]> results = new ArrayList<>();
-        String sql = "SELECT PatientID, Name FROM Patients WHERE Name = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, name);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                results.add(new String[]{rs.getString("PatientID"), rs.getString("Name")});
+        return query("getMatchingPatientsByName", () -> {
+            List<String[]> results = new ArrayList<>();
+            String sql = "SELECT PatientID, Name FROM Patients WHERE Name = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, name);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    results.add(new String[]{rs.getString("PatientID"), rs.getString("Name")});
+                }
             }
-        }
-        return results;
+            return results;
+        });
     }
 
     public List<Map<String, String>> findPatientsByName(String name) throws SQLException {
-        List<Map<String, String>> results = new ArrayList<>();
-
-        String sql = """
-            SELECT p.PatientID, p.Name, MIN(g.GroupName) AS GroupName
-            FROM Patients p
-            LEFT JOIN LabResults_EN l ON p.PatientID = l.PatientID
-            LEFT JOIN LabResultGroup g ON l.LabResultGroupID = g.LabResultGroupID
-            WHERE p.Name = ?
-            GROUP BY p.PatientID, p.Name
-        """;
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, name);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Map<String, String> patient = new HashMap<>();
-                patient.put("id", rs.getString("PatientID"));
-                patient.put("name", rs.getString("Name"));
-                patient.put("group", rs.getString("GroupName"));
-                results.add(patient);
+        return query("findPatientsByName", () -> {
+            List<Map<String, String>> results = new ArrayList<>();
+
+            String sql = """
+                SELECT p.PatientID, p.Name, MIN(g.GroupName) AS GroupName
+                FROM Patients p
+                LEFT JOIN LabResults_EN l ON p.PatientID = l.PatientID
+                LEFT JOIN LabResultGroup g ON l.LabResultGroupID = g.LabResultGroupID
+                WHERE p.Name = ?
+                GROUP BY p.PatientID, p.Name
+            """;
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, name);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    Map<String, String> patient = new HashMap<>();
+                    patient.put("id", rs.getString("PatientID"));
+                    patient.put("name", rs.getString("Name"));
+                    patient.put("group", rs.getString("GroupName"));
+                    results.add(patient);
+                }
             }
-        }
 
-        return results;
+            return results;
+        });
     }
 
     public List<String> getCMASScoresByPatient(String patientId) throws SQLException {
-        List<String> scores = new ArrayList<>();
+        return query("getCMASScoresByPatient", () -> {
+            List<String> scores = new ArrayList<>();
 
-        String sql = "SELECT score_date, score_type, score_value FROM CMAS WHERE PatientID = ? ORDER BY score_date DESC";
+            String sql = "SELECT score_date, score_type, score_value FROM CMAS WHERE PatientID = ? ORDER BY score_date DESC";
 
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, patientId);
-            ResultSet rs = stmt.executeQuery();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, patientId);
+                ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                String entry = String.format("Date: %s | Type: %s | Value: %d",
-                        rs.getString("score_date"),
-                        rs.getString("score_type"),
-                        rs.getInt("score_value"));
-                scores.add(entry);
+                while (rs.next()) {
+                    String entry = String.format("Date: %s | Type: %s | Value: %d",
+                            rs.getString("score_date"),
+                            rs.getString("score_type"),
+                            rs.getInt("score_value"));
+                    scores.add(entry);
+                }
             }
-        }
 
-        return scores;
+            return scores;
+        });
     }
 
     public List<Map<String, String>> getAllLabResultGroups() throws SQLException {
-        List<Map<String, String>> results = new ArrayList<>();
-        String sql = "SELECT LabResultGroupID, GroupName FROM LabResultGroup";
-        try (PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                Map<String, String> group = new HashMap<>();
-                group.put("id", rs.getString("LabResultGroupID"));
-                group.put("name", rs.getString("GroupName"));
-                results.add(group);
+        return query("getAllLabResultGroups", () -> {
+            List<Map<String, String>> results = new ArrayList<>();
+            String sql = "SELECT LabResultGroupID, GroupName FROM LabResultGroup";
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, String> group = new HashMap<>();
+                    group.put("id", rs.getString("LabResultGroupID"));
+                    group.put("name", rs.getString("GroupName"));
+                    results.add(group);
+                }
             }
-        }
-        return results;
+            return results;
+        });
     }
 
     public void insertLabResultEN(String labResultId, String groupId, String patientId, String resultName, String resultNameEng, String unit) throws SQLException {
-        String sql = "INSERT INTO LabResults_EN (LabResultID, LabResultGroupID, PatientID, ResultName, ResultName_English, Unit) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, labResultId);
-            stmt.setString(2, groupId);
-            stmt.setString(3, patientId);
-            stmt.setString(4, resultName);
-            stmt.setString(5, resultNameEng);
-            if (unit != null) {
-                stmt.setString(6, unit);
-            } else {
-                stmt.setNull(6, java.sql.Types.VARCHAR);
+        update("insertLabResultEN", () -> {
+            String sql = "INSERT INTO LabResults_EN (LabResultID, LabResultGroupID, PatientID, ResultName, ResultName_English, Unit) VALUES (?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, labResultId);
+                stmt.setString(2, groupId);
+                stmt.setString(3, patientId);
+                stmt.setString(4, resultName);
+                stmt.setString(5, resultNameEng);
+                if (unit != null) {
+                    stmt.setString(6, unit);
+                } else {
+                    stmt.setNull(6, java.sql.Types.VARCHAR);
+                }
+                return stmt.executeUpdate();
             }
-            stmt.executeUpdate();
-        }
+        });
     }
 
     //Setup method used to map patient IDs with no name to randomly generated names
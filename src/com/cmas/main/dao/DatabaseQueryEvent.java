@@ -0,0 +1,55 @@
+package com.cmas.main.dao;
+
+import com.cmas.main.metrics.MetricsRegistry;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One DatabaseController call, from preparing the statement until its rows are read.
+// Besides the JFR event it feeds the per-method latency metric.
+@Name("com.cmas.DatabaseQuery")
+@Label("Database Query")
+@Category({"CMAS", "Database"})
+class DatabaseQueryEvent extends Event {
+
+    @Label("Query")
+    @Description("Name of the DatabaseController method")
+    String query;
+
+    @Label("Rows")
+    @Description("Rows returned or updated; for a call that runs several queries, the rows all of them read")
+    long rows;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    private transient long startNanos;
+
+    static DatabaseQueryEvent start(String query) {
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.query = query;
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    // Counts rows as they are read, for calls made of several statements
+    void addRows(long rows) {
+        this.rows += rows;
+    }
+
+    // Records the row count on the way out of a successful call
+    void done(long rows) {
+        this.rows = rows;
+        this.succeeded = true;
+    }
+
+    // Called from finally, so failed queries are timed and recorded too
+    void finish() {
+        MetricsRegistry.timer("cmas_db_query_seconds", "Time spent in each DatabaseController method", "query", query)
+                .record(System.nanoTime() - startNanos);
+        commit();
+    }
+}
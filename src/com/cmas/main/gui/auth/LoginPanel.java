@@ -4,6 +4,7 @@ import com.cmas.main.dao.DatabaseController;
 import com.cmas.main.gui.doctor.DoctorPanel;
 import com.cmas.main.gui.patient.CMASDashboard;
 import com.cmas.main.imageProcessing.PythonServerController;
+import com.cmas.main.metrics.MetricsServer;
 import com.formdev.flatlaf.FlatLightLaf;
 
 import java.sql.SQLException;
@@ -173,6 +174,7 @@ public class LoginPanel extends JFrame {
 
 
     public static void main(String[] args) {
+        MetricsServer.start();
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(new com.formdev.flatlaf.FlatLightLaf());
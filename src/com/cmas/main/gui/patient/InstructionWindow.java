@@ -1,8 +1,12 @@
 package com.cmas.main.gui.patient;
 
+import com.cmas.main.cmas.PoseRecorder;
+import com.cmas.main.cmas.PoseSessionWriter;
+
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.nio.file.Path;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -12,10 +16,12 @@ public class InstructionWindow extends JDialog {
     private final JButton startButton;
     private final JLabel countdownLabel;
     private final TestFunction testFunction;
+    private final String testName;
 
     public InstructionWindow(JFrame parent, String testName, String instructions, TestFunction testFunction) {
         super(parent, "Instructions – " + testName, true);
         this.testFunction = testFunction;
+        this.testName = testName;
 
         setSize(1080, 400);
         setLocationRelativeTo(parent);
@@ -80,6 +86,7 @@ public class InstructionWindow extends JDialog {
                         timer.cancel();
 
                         new Thread(() -> {
+                            PoseRecorder recorder = startRecording();
                             try {
                                 int score = testFunction.run();
                                 SwingUtilities.invokeLater(() -> {
@@ -90,6 +97,8 @@ public class InstructionWindow extends JDialog {
                                     countdownLabel.setText("Test failed: " + ex.getMessage());
                                 });
                                 ex.printStackTrace();
+                            } finally {
+                                stopRecording(recorder);
                             }
                         }).start();
                     }
@@ -98,6 +107,31 @@ public class InstructionWindow extends JDialog {
         }, 1000, 1000);
     }
 
+    // Set -Dcmas.recordDir=<dir> to keep each run's pose frames for SessionReplay
+    private PoseRecorder startRecording() {
+        String dir = System.getProperty("cmas.recordDir");
+        if (dir == null) return null;
+
+        String name = testName.replaceAll("[^A-Za-z0-9]+", "_") + "_" + System.currentTimeMillis();
+        PoseRecorder recorder = new PoseRecorder(Path.of(dir, name + PoseSessionWriter.FILE_EXTENSION));
+        try {
+            recorder.start();
+            return recorder;
+        } catch (IOException e) {
+            System.err.println("Could not record session: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void stopRecording(PoseRecorder recorder) {
+        if (recorder == null) return;
+        try {
+            recorder.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void redirectConsoleOutput() {
         PrintStream consoleStream = new PrintStream(new OutputStream() {
             public void write(int b) {
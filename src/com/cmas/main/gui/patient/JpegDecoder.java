@@ -0,0 +1,97 @@
+package com.cmas.main.gui.patient;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+
+// Decodes camera JPEGs one after another into the same BufferedImage. The ImageReader, its input
+// stream and the destination image are kept between frames and only replaced when the frame size
+// or colour layout changes, so a steady feed decodes without allocating a new image per frame.
+// Not thread-safe; the returned image is overwritten by the next decode.
+public class JpegDecoder {
+
+    private final ImageReader reader;
+    private final ImageReadParam param;
+    private final BytesInput input = new BytesInput();
+    private BufferedImage destination;
+
+    public JpegDecoder() {
+        Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("jpeg");
+        if (!readers.hasNext()) throw new IllegalStateException("No JPEG reader available");
+        reader = readers.next();
+        param = reader.getDefaultReadParam();
+    }
+
+    public BufferedImage decode(byte[] jpeg, int length) throws IOException {
+        input.point(jpeg, length);
+        reader.setInput(input, true, true);
+
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if (destination == null || destination.getWidth() != width || destination.getHeight() != height) {
+            destination = createDestination(width, height);
+        }
+
+        param.setDestination(destination);
+        try {
+            reader.read(0, param);
+        } catch (IIOException e) {
+            // Most likely a frame with another colour layout; start over with a new image next time
+            destination = null;
+            throw e;
+        }
+        return destination;
+    }
+
+    public void dispose() {
+        reader.dispose();
+    }
+
+    private BufferedImage createDestination(int width, int height) throws IOException {
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        if (!types.hasNext()) throw new IIOException("No destination type for JPEG frame");
+        return types.next().createBufferedImage(width, height);
+    }
+
+    // An ImageInputStream over a byte array that can be pointed at the next frame,
+    // instead of wrapping each frame in a new ByteArrayInputStream and cache stream
+    private static final class BytesInput extends ImageInputStreamImpl {
+        private byte[] data = new byte[0];
+        private int length;
+
+        private void point(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+            streamPos = 0;
+            bitOffset = 0;
+            flushedPos = 0;
+        }
+
+        @Override
+        public int read() {
+            bitOffset = 0;
+            return streamPos < length ? data[(int) streamPos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            bitOffset = 0;
+            if (streamPos >= length) return -1;
+            int n = (int) Math.min(len, length - streamPos);
+            System.arraycopy(data, (int) streamPos, b, off, n);
+            streamPos += n;
+            return n;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.cmas.main.gui.patient;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One JPEG from the camera feed decoded into an image
+@Name("com.cmas.MjpegFrameDecoded")
+@Label("MJPEG Frame Decoded")
+@Category({"CMAS", "Video"})
+@StackTrace(false)
+class MjpegFrameEvent extends Event {
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+}
@@ -0,0 +1,120 @@
+package com.cmas.main.gui.patient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Pulls whole JPEG images out of a multipart MJPEG stream such as /video_feed. The stream is read in
+// large blocks into one reusable buffer and each frame is handed out as a slice of it, so there is no
+// per-byte read and no copy per frame. A part's Content-Length header is used when the server sends
+// one; otherwise the frame runs from the JPEG start marker (FF D8) to the end marker (FF D9).
+public class MjpegFrameReader {
+
+    private static final int INITIAL_CAPACITY = 256 * 1024;
+    private static final int READ_CHUNK = 64 * 1024;
+    // Far above a camera frame; a part this big means we lost track of the stream
+    private static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+    private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(StandardCharsets.US_ASCII);
+
+    private final InputStream stream;
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    // Bytes [start, end) have been read but not handed out yet
+    private int start = 0;
+    private int end = 0;
+
+    public MjpegFrameReader(InputStream stream) {
+        this.stream = stream;
+    }
+
+    // The next complete JPEG, or null once the stream ends. The returned buffer is a view of this
+    // reader's buffer (array-backed, from position to limit) and is only valid until the next call.
+    public ByteBuffer nextFrame() throws IOException {
+        // Offsets are relative to start, which stays put while the buffer is compacted or grown.
+        // Part headers come before the JPEG start marker.
+        int soi = find(0, (byte) 0xD8);
+        if (soi < 0) return null;
+
+        int length = contentLength(0, soi);
+        int eoi;
+        if (length > 0) {
+            if (!fillTo(soi + length)) return null;
+            eoi = soi + length;
+        } else {
+            eoi = find(soi + 2, (byte) 0xD9);
+            if (eoi < 0) return null;
+            eoi += 2;
+        }
+
+        int frameStart = start + soi;
+        start += eoi;
+        return ByteBuffer.wrap(buffer, frameStart, eoi - soi).slice();
+    }
+
+    // Offset of the next FF <second> pair at or after from, reading more as needed; -1 at end of stream
+    private int find(int from, byte second) throws IOException {
+        int i = from;
+        while (true) {
+            int last = end - start - 1;
+            for (; i < last; i++) {
+                if (buffer[start + i] == (byte) 0xFF && buffer[start + i + 1] == second) return i;
+            }
+            if (!read()) return -1;
+        }
+    }
+
+    // The part's Content-Length, or -1 if the bytes in [from, to) carry none
+    private int contentLength(int from, int to) {
+        for (int i = start + from, limit = start + to - CONTENT_LENGTH.length; i <= limit; i++) {
+            if (!matchesIgnoreCase(i)) continue;
+
+            int j = i + CONTENT_LENGTH.length;
+            while (j < start + to && buffer[j] == ' ') j++;
+            long value = 0;
+            int digits = 0;
+            for (; j < start + to && buffer[j] >= '0' && buffer[j] <= '9' && value <= MAX_FRAME_BYTES; j++) {
+                value = value * 10 + (buffer[j] - '0');
+                digits++;
+            }
+            return digits > 0 && value <= MAX_FRAME_BYTES ? (int) value : -1;
+        }
+        return -1;
+    }
+
+    private boolean matchesIgnoreCase(int at) {
+        for (int k = 0; k < CONTENT_LENGTH.length; k++) {
+            int b = buffer[at + k];
+            if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+            if (b != CONTENT_LENGTH[k]) return false;
+        }
+        return true;
+    }
+
+    // Reads until length bytes past start have arrived; false at end of stream
+    private boolean fillTo(int length) throws IOException {
+        while (end - start < length) {
+            if (!read()) return false;
+        }
+        return true;
+    }
+
+    // Appends one block from the stream, first making room by dropping handed-out bytes or growing
+    private boolean read() throws IOException {
+        if (buffer.length - end < READ_CHUNK) {
+            int pending = end - start;
+            if (pending > MAX_FRAME_BYTES) {
+                throw new IOException("No JPEG frame found in " + pending + " bytes of MJPEG stream");
+            }
+            byte[] target = pending + READ_CHUNK > buffer.length ? new byte[buffer.length * 2] : buffer;
+            System.arraycopy(buffer, start, target, 0, pending);
+            buffer = target;
+            start = 0;
+            end = pending;
+        }
+
+        int n = stream.read(buffer, end, buffer.length - end);
+        if (n < 0) return false;
+        end += n;
+        return true;
+    }
+}
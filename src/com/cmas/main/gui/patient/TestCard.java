@@ -84,6 +84,15 @@ public class TestCard extends JPanel {
 
     // Instructions
     private String getInstructionsForTest(String label) {
+        // Items run together show each item's instructions in turn
+        if (label.contains(" + ")) {
+            StringBuilder combined = new StringBuilder("These items are scored together:\n");
+            for (String part : label.split(" \\+ ")) {
+                combined.append("\n").append(part).append(": ").append(getInstructionsForTest(part));
+            }
+            return combined.toString();
+        }
+
         return switch (label) {
             case "1. Head Elevation" -> "Lie on your back with your arms at your side. When prompted, lift your head off the ground and hold it up.";
             case "2. Leg Raise" -> "While lying flat on your back, lift one leg straight up into the air as high as you can.";
@@ -1,5 +1,6 @@
 package com.cmas.main.gui.patient;
 
+import com.cmas.main.cmas.CMASItem;
 import com.cmas.main.cmas.CMASTest;
 import com.cmas.main.gui.patient.CMASDashboard;
 import com.cmas.main.dao.DatabaseController;
@@ -7,9 +8,11 @@ import com.cmas.main.dao.DatabaseController;
 import javax.swing.*;
 import java.awt.*;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class TestDashboardPanel extends JPanel {
     private final Map<String, Integer> testScores = new LinkedHashMap<>();
@@ -51,6 +54,15 @@ public class TestDashboardPanel extends JPanel {
 
         testCards.forEach(grid::add);
 
+        // Items that watch the same body parts can be scored together from one pass over the frames
+        List<TestCard> combinedCards = List.of(
+                combined(CMASItem.HEAD_ELEVATION, CMASItem.SUPINE_TO_SIT),
+                combined(CMASItem.ARM_RAISE_STRAIGHTEN, CMASItem.ARM_RAISE_DURATION),
+                combined(CMASItem.FLOOR_RISE, CMASItem.CHAIR_RISE)
+        );
+
+        combinedCards.forEach(grid::add);
+
         add(title, BorderLayout.NORTH);
         add(new JScrollPane(grid), BorderLayout.CENTER);
     }
@@ -59,25 +71,43 @@ public class TestDashboardPanel extends JPanel {
     private TestFunction wrap(String label, TestFunction originalTest) {
         return () -> {
             int score = originalTest.run();
-            testScores.put(label, score);
-
-            if (testScores.size() == totalTests) {
-                int total = testScores.values().stream().mapToInt(Integer::intValue).sum();
-                JOptionPane.showMessageDialog(this,
-                        "All tests completed!\nTotal CMAS Score: " + total,
-                        "CMAS Summary", JOptionPane.INFORMATION_MESSAGE);
+            recordScore(label, score);
+            return score;
+        };
+    }
 
-                // Save score
-                db.saveCMASScore(CMASDashboard.getPatientID(), total);
+    // Card that runs several items at once; each item's score is recorded under its own label
+    private TestCard combined(CMASItem... items) {
+        String label = Arrays.stream(items)
+                .map(CMASItem::getLabel)
+                .collect(Collectors.joining(" + "));
 
-                // Trigger UI refresh
-                if (onAllTestsCompleted != null) {
-                    onAllTestsCompleted.run();
-                }
+        return new TestCard(label, () -> {
+            Map<CMASItem, Integer> scores = CMASTest.runTogether(List.of(items));
+            for (Map.Entry<CMASItem, Integer> entry : scores.entrySet()) {
+                recordScore(entry.getKey().getLabel(), entry.getValue());
             }
+            return scores.values().stream().mapToInt(Integer::intValue).sum();
+        });
+    }
 
-            return score;
-        };
+    private synchronized void recordScore(String label, int score) throws SQLException {
+        testScores.put(label, score);
+
+        if (testScores.size() == totalTests) {
+            int total = testScores.values().stream().mapToInt(Integer::intValue).sum();
+            JOptionPane.showMessageDialog(this,
+                    "All tests completed!\nTotal CMAS Score: " + total,
+                    "CMAS Summary", JOptionPane.INFORMATION_MESSAGE);
+
+            // Save score
+            db.saveCMASScore(CMASDashboard.getPatientID(), total);
+
+            // Trigger UI refresh
+            if (onAllTestsCompleted != null) {
+                onAllTestsCompleted.run();
+            }
+        }
     }
 
     public int getTotalScore() {
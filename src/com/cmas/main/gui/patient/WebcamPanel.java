@@ -1,27 +1,61 @@
 package com.cmas.main.gui.patient;
 
-import javax.imageio.ImageIO;
+import com.cmas.main.cmas.CMASTest;
+import com.cmas.main.cmas.DetectorEngine;
+import com.cmas.main.cmas.FrameLatency;
+import com.cmas.main.cmas.PoseFrame;
+import com.cmas.main.cmas.PoseStream;
+import com.cmas.main.imageProcessing.PoseServerClient;
+import com.cmas.main.metrics.MetricsRegistry;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class WebcamPanel extends JPanel {
-    private final JLabel imageLabel = new JLabel("Loading...", SwingConstants.CENTER);
-    private final AtomicReference<BufferedImage> latestFrame = new AtomicReference<>();
+    private static final MetricsRegistry.Counter FRAMES_RECEIVED = MetricsRegistry.counter(
+            "cmas_mjpeg_frames_received_total", "Camera frames read from the MJPEG feed");
+    private static final MetricsRegistry.Counter FRAMES_DECODED = MetricsRegistry.counter(
+            "cmas_mjpeg_frames_decoded_total", "Camera frames decoded from the MJPEG feed");
+    private static final MetricsRegistry.Counter FRAMES_SKIPPED = MetricsRegistry.counter(
+            "cmas_mjpeg_frames_skipped_total", "Camera frames that could not be decoded or were replaced before being shown");
+
+    // The preview is drawn at this size, centred in the panel
+    private static final int VIEW_WIDTH = 480;
+    private static final int VIEW_HEIGHT = 360;
+    // Landmarks MediaPipe is less sure of than this are left out of the skeleton, as its own drawing does
+    private static final float MIN_VISIBILITY = 0.5f;
+    // An older pose no longer matches the video and is not drawn
+    private static final long MAX_POSE_AGE_MICROS = 500_000;
+    private static final Stroke BONE_STROKE = new BasicStroke(2f);
+
+    // Newest JPEG not yet shown. Only frames the UI tick takes get decoded; one that is replaced
+    // first is skipped without being decoded. The array it replaced or that was shown is reused.
+    private final AtomicReference<JpegBytes> latestFrame = new AtomicReference<>();
+    private final AtomicReference<JpegBytes> spareFrame = new AtomicReference<>();
     private final AtomicBoolean running = new AtomicBoolean(true);
     private Thread readerThread;
+    private volatile InputStream stream;
     private Timer updateTimer;
 
-    public WebcamPanel(String streamUrl) {
-        setLayout(new BorderLayout());
-        add(imageLabel, BorderLayout.CENTER);
+    // Only touched on the EDT: every frame is decoded into the same image, which is scaled as it is painted
+    private final JpegDecoder decoder = new JpegDecoder();
+    private BufferedImage image;
+    private String message = "Loading...";
+    private final PoseFrame pose = new PoseFrame();
+    private boolean poseShown = false;
 
+    public WebcamPanel(String streamUrl) {
+        // The skeleton is drawn here over the raw video, from the frames the items are scored on.
+        // Between items it follows the pose stream, but only if that is what the items read:
+        // with long polling or the shared buffer it stays off.
+        PoseStream stream = CMASTest.getEngine().getStream();
+        if (stream != null) stream.start();
         startReadingStream(streamUrl);
         startUIUpdater();
     }
@@ -29,53 +63,33 @@ public class WebcamPanel extends JPanel {
     private void startReadingStream(String streamUrl) {
         readerThread = new Thread(() -> {
             try {
-                URL url = new URL(streamUrl);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setReadTimeout(5000);
-                connection.connect();
-                InputStream stream = connection.getInputStream();
+                stream = PoseServerClient.openStream(streamUrl);
+                if (!running.get()) closeStream();
 
-                ByteArrayOutputStream jpegBuffer = new ByteArrayOutputStream();
-                boolean recording = false;
+                MjpegFrameReader frames = new MjpegFrameReader(stream);
 
                 while (running.get()) {
-                    int b = stream.read();
-                    if (b == -1) break;
-
-                    if (!recording && b == 0xFF) {
-                        int b2 = stream.read();
-                        if (b2 == 0xD8) {
-                            jpegBuffer.reset();
-                            jpegBuffer.write(0xFF);
-                            jpegBuffer.write(0xD8);
-                            recording = true;
-                            continue;
-                        }
-                    }
+                    ByteBuffer jpeg = frames.nextFrame();
+                    if (jpeg == null) break;
 
-                    if (recording) {
-                        jpegBuffer.write(b);
-
-                        if (b == 0xFF) {
-                            int b2 = stream.read();
-                            jpegBuffer.write(b2);
-                            if (b2 == 0xD9) {
-                                recording = false;
-                                byte[] jpegBytes = jpegBuffer.toByteArray();
-                                BufferedImage img = ImageIO.read(new java.io.ByteArrayInputStream(jpegBytes));
-                                if (img != null) {
-                                    latestFrame.set(img);
-                                }
-                            }
-                        }
+                    // The reader's buffer is reused for the next frame, so the bytes are copied out
+                    JpegBytes frame = spareFrame.getAndSet(null);
+                    if (frame == null) frame = new JpegBytes();
+                    frame.copyFrom(jpeg);
+                    FRAMES_RECEIVED.increment();
+
+                    JpegBytes replaced = latestFrame.getAndSet(frame);
+                    if (replaced != null) {
+                        FRAMES_SKIPPED.increment();
+                        spareFrame.set(replaced);
                     }
                 }
 
-                stream.close();
+                closeStream();
             } catch (Exception e) {
                 if (running.get()) {
                     e.printStackTrace();
-                    SwingUtilities.invokeLater(() -> imageLabel.setText("Unable to load camera stream."));
+                    SwingUtilities.invokeLater(() -> showMessage("Unable to load camera stream."));
                 }
             }
         }, "MJPEG Reader");
@@ -85,16 +99,113 @@ public class WebcamPanel extends JPanel {
 
     private void startUIUpdater() {
         updateTimer = new Timer(33, e -> {
-            BufferedImage frame = latestFrame.getAndSet(null);
-            if (frame != null) {
-                Image scaled = frame.getScaledInstance(480, 360, Image.SCALE_FAST);
-                imageLabel.setIcon(new ImageIcon(scaled));
-                imageLabel.setText("");
+            long shownSequence = poseShown ? pose.getSequence() : -1;
+            poseShown = readPose(pose);
+            boolean changed = (poseShown ? pose.getSequence() : -1) != shownSequence;
+
+            JpegBytes jpeg = latestFrame.getAndSet(null);
+            if (jpeg != null) {
+                BufferedImage frame = decode(jpeg);
+                spareFrame.set(jpeg);
+                if (frame != null) {
+                    image = frame;
+                    message = null;
+                    changed = true;
+                }
             }
+            if (changed) repaint();
         });
         updateTimer.start();
     }
 
+    // What the detectors last saw while an item runs, otherwise the newest frame on their pose stream
+    private static boolean readPose(PoseFrame dst) {
+        DetectorEngine engine = CMASTest.getEngine();
+        PoseStream stream = engine.getStream();
+        boolean read = engine.getActiveCount() > 0 && engine.readLastFrame(dst)
+                || stream != null && stream.readLatest(dst);
+        return read && FrameLatency.nowMicros() - dst.getCaptureMicros() <= MAX_POSE_AGE_MICROS;
+    }
+
+    private BufferedImage decode(JpegBytes jpeg) {
+        MjpegFrameEvent event = new MjpegFrameEvent();
+        event.begin();
+        BufferedImage img;
+        try {
+            img = decoder.decode(jpeg.data, jpeg.length);
+        } catch (IOException e) {
+            FRAMES_SKIPPED.increment();
+            return null;
+        }
+
+        FRAMES_DECODED.increment();
+        if (event.shouldCommit()) {
+            event.bytes = jpeg.length;
+            event.width = img.getWidth();
+            event.height = img.getHeight();
+            event.commit();
+        }
+        return img;
+    }
+
+    private void showMessage(String text) {
+        image = null;
+        message = text;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        int x = (getWidth() - VIEW_WIDTH) / 2;
+        int y = (getHeight() - VIEW_HEIGHT) / 2;
+
+        if (image != null) {
+            // Scaled by the drawImage itself, nearest neighbour like the old SCALE_FAST
+            g.drawImage(image, x, y, VIEW_WIDTH, VIEW_HEIGHT, null);
+            if (poseShown) paintSkeleton((Graphics2D) g, x, y);
+        } else if (message != null) {
+            FontMetrics metrics = g.getFontMetrics();
+            g.setColor(getForeground());
+            g.drawString(message, (getWidth() - metrics.stringWidth(message)) / 2,
+                    (getHeight() - metrics.getHeight()) / 2 + metrics.getAscent());
+        }
+    }
+
+    // Landmarks are normalised to the video frame, so they map straight onto the drawn preview
+    private void paintSkeleton(Graphics2D g, int x, int y) {
+        Object antialiasing = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        Stroke stroke = g.getStroke();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        g.setColor(Color.WHITE);
+        g.setStroke(BONE_STROKE);
+        for (int[] bone : PoseFrame.BONES) {
+            if (!visible(bone[0]) || !visible(bone[1])) continue;
+            g.drawLine(x + px(bone[0]), y + py(bone[0]), x + px(bone[1]), y + py(bone[1]));
+        }
+
+        g.setColor(Color.RED);
+        for (int i = 0; i < pose.getLandmarkCount(); i++) {
+            if (visible(i)) g.fillOval(x + px(i) - 3, y + py(i) - 3, 6, 6);
+        }
+
+        g.setStroke(stroke);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+    }
+
+    private boolean visible(int landmark) {
+        return landmark < pose.getLandmarkCount() && pose.visibility(landmark) >= MIN_VISIBILITY;
+    }
+
+    private int px(int landmark) {
+        return Math.round(pose.x(landmark) * VIEW_WIDTH);
+    }
+
+    private int py(int landmark) {
+        return Math.round(pose.y(landmark) * VIEW_HEIGHT);
+    }
+
     @Override
     public void removeNotify() {
         super.removeNotify();
@@ -106,6 +217,9 @@ public class WebcamPanel extends JPanel {
         if (updateTimer != null) {
             updateTimer.stop();
         }
+        decoder.dispose();
+        // Unblocks the reader if the server has gone quiet mid-frame
+        closeStream();
         if (readerThread != null && readerThread.isAlive()) {
             try {
                 readerThread.join(1000); // wait max 1 sec
@@ -113,4 +227,25 @@ public class WebcamPanel extends JPanel {
             }
         }
     }
+
+    // One raw JPEG handed from the reader thread to the UI tick
+    private static final class JpegBytes {
+        private byte[] data = new byte[0];
+        private int length;
+
+        private void copyFrom(ByteBuffer jpeg) {
+            length = jpeg.remaining();
+            if (data.length < length) data = new byte[length + length / 4];
+            jpeg.get(data, 0, length);
+        }
+    }
+
+    private void closeStream() {
+        InputStream in = stream;
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
 }
\ No newline at end of file
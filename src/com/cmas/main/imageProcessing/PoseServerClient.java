@@ -0,0 +1,110 @@
+package com.cmas.main.imageProcessing;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// The one HTTP client every Java-side request to the pose server goes through. Connections are
+// kept alive and reused between polls, every connect and read has a timeout, and failed requests
+// are retried a bounded number of times, so a hung or restarting server cannot block a caller forever.
+public class PoseServerClient {
+
+    public static final int CONNECT_TIMEOUT_MS = 2000;
+    public static final int READ_TIMEOUT_MS = 2000;
+    // Streams go quiet while the camera is paused, so they get longer before being dropped
+    public static final int STREAM_READ_TIMEOUT_MS = 5000;
+    public static final int MAX_ATTEMPTS = 3;
+    private static final int RETRY_DELAY_MS = 100;
+    // One long-lived stream per reader plus the pollers; all on the same host
+    private static final int MAX_CONNECTIONS = 8;
+
+    private static final CloseableHttpClient client;
+
+    static {
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+        connections.setMaxTotal(MAX_CONNECTIONS);
+        connections.setDefaultMaxPerRoute(MAX_CONNECTIONS);
+
+        client = HttpClients.custom()
+                .setConnectionManager(connections)
+                .setDefaultRequestConfig(config(READ_TIMEOUT_MS))
+                // Retries are done here with a back-off, not by the client
+                .disableAutomaticRetries()
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .build();
+    }
+
+    private PoseServerClient() {
+    }
+
+    // Fetches a short response, e.g. one /latest-frame poll. A 204 No Content comes back empty.
+    public static byte[] get(String url) throws IOException, InterruptedException {
+        try (CloseableHttpResponse response = execute(url, READ_TIMEOUT_MS)) {
+            HttpEntity entity = response.getEntity();
+            return entity == null ? new byte[0] : EntityUtils.toByteArray(entity);
+        }
+    }
+
+    // Opens a long-lived response such as /pose-stream or /video_feed. Closing the returned
+    // stream drops the connection rather than draining an endless body, and also unblocks a
+    // read in progress on another thread.
+    public static InputStream openStream(String url) throws IOException, InterruptedException {
+        CloseableHttpResponse response = execute(url, STREAM_READ_TIMEOUT_MS);
+        return new FilterInputStream(response.getEntity().getContent()) {
+            @Override
+            public void close() throws IOException {
+                response.close();
+            }
+        };
+    }
+
+    private static CloseableHttpResponse execute(String url, int readTimeoutMs)
+            throws IOException, InterruptedException {
+        HttpGet request = new HttpGet(url);
+        request.setConfig(config(readTimeoutMs));
+
+        for (int attempt = 1; ; attempt++) {
+            IOException failure;
+            try {
+                CloseableHttpResponse response = client.execute(request);
+                int status = response.getStatusLine().getStatusCode();
+                if (status == 200 || status == 204) return response;
+
+                discard(response);
+                failure = new IOException("Pose server returned " + status + " for " + url);
+                // A client error will not fix itself by asking again
+                if (status < 500) attempt = MAX_ATTEMPTS;
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            if (attempt >= MAX_ATTEMPTS) throw failure;
+            Thread.sleep((long) RETRY_DELAY_MS * attempt);
+        }
+    }
+
+    private static RequestConfig config(int readTimeoutMs) {
+        return RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT_MS)
+                .setConnectionRequestTimeout(CONNECT_TIMEOUT_MS)
+                .setSocketTimeout(readTimeoutMs)
+                .build();
+    }
+
+    private static void discard(CloseableHttpResponse response) throws IOException {
+        try (response) {
+            HttpEntity entity = response.getEntity();
+            if (entity != null) EntityUtils.consume(entity);
+        }
+    }
+}
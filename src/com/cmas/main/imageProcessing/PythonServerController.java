@@ -1,17 +1,72 @@
 package com.cmas.main.imageProcessing;
 
+import com.cmas.main.cmas.CMASTest;
+import com.cmas.main.cmas.Clock;
+import com.cmas.main.cmas.MappedPoseSource;
+import com.cmas.main.cmas.PoseStream;
+import com.cmas.main.cmas.SharedPoseBuffer;
+import com.cmas.main.metrics.MetricsRegistry;
+
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PythonServerController {
-    private static Process pythonProcess;
+    private static final MetricsRegistry.Counter STARTS = MetricsRegistry.counter(
+            "cmas_python_server_starts_total", "Times the Python pose server process was launched");
+
+    // The server prints these once its Unix domain socket is listening / it has attached to the buffer
+    private static final String SOCKET_READY = "pose-socket: ";
+    private static final String MMAP_READY = "pose-mmap: ";
+
+    private static volatile Process pythonProcess;
+    private static Path poseSocket;
+    private static Path poseBuffer;
+
+    static {
+        MetricsRegistry.gauge("cmas_python_server_up", "1 while the Python pose server process is alive",
+                () -> pythonProcess != null && pythonProcess.isAlive() ? 1 : 0);
+    }
 
     public static void startServer() {
         try {
-            ProcessBuilder builder = new ProcessBuilder(
-                    "python3", "src/com/cmas/main/imageProcessing/VideoProcessing.py"
-            );
+            // WebcamPanel draws the skeleton over the video itself
+            List<String> command = new ArrayList<>(List.of(
+                    "python3", "src/com/cmas/main/imageProcessing/VideoProcessing.py", "--raw-video"
+            ));
+            // Pose frames go over a Unix domain socket unless -Dcmas.poseSocket=false.
+            // Until the server confirms it is listening, PoseStream keeps using HTTP.
+            poseSocket = Boolean.parseBoolean(System.getProperty("cmas.poseSocket", "true"))
+                    ? Path.of(System.getProperty("java.io.tmpdir"), "cmas-pose-" + ProcessHandle.current().pid() + ".sock")
+                    : null;
+            if (poseSocket != null) {
+                command.add("--pose-socket");
+                command.add(poseSocket.toString());
+            }
+            // With -Dcmas.poseMmap=true the server also writes frames into a shared memory-mapped
+            // buffer, and the CMAS items read that instead once the server has attached to it.
+            // x86 only: the Python writer has no memory fences and relies on x86 keeping its stores
+            // in order, which ARM (e.g. Apple silicon) does not.
+            if (Boolean.getBoolean("cmas.poseMmap") && !isX86()) {
+                System.err.println("cmas.poseMmap needs an x86 CPU; ignored on " + System.getProperty("os.arch"));
+            } else if (Boolean.getBoolean("cmas.poseMmap")) {
+                poseBuffer = Path.of(System.getProperty("java.io.tmpdir"), "cmas-pose-" + ProcessHandle.current().pid() + ".mmap");
+                SharedPoseBuffer.create(poseBuffer, SharedPoseBuffer.DEFAULT_SLOTS);
+                command.add("--pose-mmap");
+                command.add(poseBuffer.toString());
+            }
+
+            ProcessBuilder builder = new ProcessBuilder(command);
             builder.redirectErrorStream(true);
             pythonProcess = builder.start();
+            STARTS.increment();
+            readOutput(pythonProcess);
             System.out.println("Python server started.");
         } catch (IOException e) {
             e.printStackTrace();
@@ -24,5 +79,61 @@ public class PythonServerController {
             pythonProcess.destroy();
             System.out.println("Python server stopped.");
         }
+        if (poseSocket != null) {
+            PoseStream.shared().useSocket(null);
+            try {
+                Files.deleteIfExists(poseSocket);
+            } catch (IOException ignored) {
+            }
+            poseSocket = null;
+        }
+        if (poseBuffer != null) {
+            CMASTest.useDefaultSource();
+            try {
+                Files.deleteIfExists(poseBuffer);
+            } catch (IOException ignored) {
+                // Windows keeps a mapped file until the mapping is collected
+            }
+            poseBuffer = null;
+        }
+    }
+
+    // Echoes the server's output, which also keeps its pipe from filling up, and
+    // switches pose frames to the socket or shared buffer once the server announces them
+    private static void readOutput(Process process) {
+        Path socket = poseSocket;
+        Path buffer = poseBuffer;
+        Thread reader = new Thread(() -> {
+            try (BufferedReader out = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    System.out.println("[pose server] " + line);
+                    if (socket != null && line.equals(SOCKET_READY + socket)) {
+                        PoseStream.shared().useSocket(socket);
+                    }
+                    if (buffer != null && line.equals(MMAP_READY + buffer)) {
+                        CMASTest.useSource(() -> openBuffer(buffer), Clock.SYSTEM);
+                    }
+                }
+            } catch (IOException ignored) {
+                // The process was stopped
+            }
+        }, "Python Server Output");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private static boolean isX86() {
+        String arch = System.getProperty("os.arch");
+        return arch.equals("amd64") || arch.equals("x86_64") || arch.equals("x86") || arch.matches("i[3-6]86");
+    }
+
+    private static MappedPoseSource openBuffer(Path buffer) {
+        try {
+            return new MappedPoseSource(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,97 @@
-from flask import Flask, jsonify, Response
+from flask import Flask, jsonify, Response, request
+from werkzeug.serving import WSGIRequestHandler
+import argparse
+import atexit
+import os
+import socket
 import threading
+import json
+import mmap
 import cv2
 import mediapipe as mp
 import platform
+import struct
 import sys
 import time
 
 app = Flask(__name__)
+# Keep payload keys in the order capture_loop() builds them: the Java decoder stops reading
+# once it has 'seq', the timestamps and 'cmas', before the duplicated 'legs' and 'feet'
+if hasattr(app, 'json'):
+    app.json.sort_keys = False
+else:
+    app.config['JSON_SORT_KEYS'] = False
 latest_frame_data = {}
+latest_pose_packet = b''
+
+# Bumped once per processed frame and sent as the frame's 'seq';
+# /pose-stream waits on it to push each frame once
+frame_version = 0
+frame_cond = threading.Condition()
+MAX_LONG_POLL_MS = 10000
+last_drawn_frame = None
+
+# Each captured frame is JPEG-encoded once by encode_video_frames() and the finished multipart
+# part is shared by every /video_feed viewer; viewers wait on video_cond for the next one.
+# Nothing is encoded while nobody is watching.
+latest_video_part = b''
+video_version = 0
+video_viewers = 0
+video_cond = threading.Condition()
+# A viewer gets the last part again after this long without a new one, so a stalled camera
+# does not trip the Java client's read timeout
+VIDEO_KEEPALIVE_S = 2
+
+# Fixed-layout binary pose frame, big-endian (decoded by PoseFrameCodec on the Java side):
+#   magic 'CMPF' (u32), version (u16), landmark count (u16), sequence (i64), capture time in epoch us (i64),
+#   publish time in epoch us (i64, added in version 2),
+#   then 33 x, 33 y, 33 z and 33 visibility values as float32. Missing landmarks are sent as zeros.
+POSE_FRAME_MAGIC = 0x434D5046
+POSE_FRAME_VERSION = 2
+LANDMARK_COUNT = 33
+POSE_FRAME_HEADER = struct.Struct('>IHHqqq')
+POSE_FRAME_BODY = struct.Struct('>%df' % (LANDMARK_COUNT * 4))
+
+
+# CPUs that keep stores in program order, which SharedPoseBuffer.publish() depends on
+STORE_ORDERED_MACHINES = ('x86_64', 'amd64', 'x86', 'i386', 'i686')
+
+
+# Ring of pose frames in a memory-mapped file created by the Java side (SharedPoseBuffer).
+# Header: magic 'CMPM' (u32), version (u16), slot count (u16), slot size (u32), reserved (u32),
+# last position written (i64). Each slot: a seqlock stamp (i64) and one binary pose frame.
+class SharedPoseBuffer:
+    MAGIC = 0x434D504D
+    VERSION = 1
+    HEADER = struct.Struct('>IHHI')
+    HEADER_BYTES = 64
+    PUBLISHED_OFFSET = 16
+    STAMP = struct.Struct('>q')
+
+    def __init__(self, path):
+        with open(path, 'r+b') as f:
+            self.mm = mmap.mmap(f.fileno(), 0)
+        magic, version, self.slots, self.slot_bytes = self.HEADER.unpack_from(self.mm, 0)
+        if magic != self.MAGIC or version != self.VERSION or self.slots == 0 \
+                or self.slot_bytes < self.STAMP.size + POSE_FRAME_HEADER.size + POSE_FRAME_BODY.size:
+            raise ValueError('Not a shared pose buffer: ' + path)
+        self.position = self.STAMP.unpack_from(self.mm, self.PUBLISHED_OFFSET)[0]
+
+    # Odd stamp while the slot is rewritten, even once it holds the frame. This relies on the
+    # stores reaching memory in program order, which x86 guarantees (Python has no fences).
+    def publish(self, packet):
+        self.position += 1
+        offset = self.HEADER_BYTES + (self.position % self.slots) * self.slot_bytes
+        self.STAMP.pack_into(self.mm, offset, 2 * self.position + 1)
+        start = offset + self.STAMP.size
+        self.mm[start:start + len(packet)] = packet
+        self.STAMP.pack_into(self.mm, offset, 2 * self.position + 2)
+        self.STAMP.pack_into(self.mm, self.PUBLISHED_OFFSET, self.position)
+
+
+shared_buffer = None
+# The Java app draws the skeleton itself from the pose frames, so it asks for plain camera frames
+draw_landmarks = True
 
 # Setup camera and MediaPipe
 cap = cv2.VideoCapture(0)  # Use 1 or 2 if external webcam
@@ -39,8 +123,20 @@ def explain_permission_issue():
     sys.exit(1)
 
 
+def encode_pose_frame(seq, captured_at, published_at, landmarks):
+    values = [0.0] * (LANDMARK_COUNT * 4)
+    for i, lm in enumerate(landmarks[:LANDMARK_COUNT]):
+        values[i] = lm.x
+        values[LANDMARK_COUNT + i] = lm.y
+        values[2 * LANDMARK_COUNT + i] = lm.z
+        values[3 * LANDMARK_COUNT + i] = lm.visibility
+    header = POSE_FRAME_HEADER.pack(POSE_FRAME_MAGIC, POSE_FRAME_VERSION, len(landmarks), seq, captured_at,
+                                    published_at)
+    return header + POSE_FRAME_BODY.pack(*values)
+
+
 def capture_loop():
-    global latest_frame_data
+    global latest_frame_data, latest_pose_packet, frame_version, last_drawn_frame
 
     if not cap.isOpened():
         explain_permission_issue()
@@ -49,6 +145,7 @@ def capture_loop():
         success, frame = cap.read()
         if not success:
             continue
+        captured_at = time.time_ns() // 1000
 
         image_rgb = cv2.cvtColor(frame, cv2.COLOR_BGR2RGB)
         results = pose.process(image_rgb)
@@ -58,12 +155,13 @@ def capture_loop():
         feet = {'left_foot': {}, 'right_foot': {}}
 
         if results.pose_landmarks:
-            mp_drawing.draw_landmarks(
-                frame,
-                results.pose_landmarks,
-                mp_pose.POSE_CONNECTIONS,
-                landmark_drawing_spec=mp_drawing_styles.get_default_pose_landmarks_style()
-            )
+            if draw_landmarks:
+                mp_drawing.draw_landmarks(
+                    frame,
+                    results.pose_landmarks,
+                    mp_pose.POSE_CONNECTIONS,
+                    landmark_drawing_spec=mp_drawing_styles.get_default_pose_landmarks_style()
+                )
 
             for idx, lm in enumerate(results.pose_landmarks.landmark):
                 point = {'id': idx, 'x': lm.x, 'y': lm.y, 'z': lm.z, 'visibility': lm.visibility}
@@ -90,25 +188,109 @@ def capture_loop():
                 elif idx == 32:
                     feet['right_foot']['toe'] = point
 
-        latest_frame_data = {
-            'cmas': pose_landmarks,
-            'legs': legs,
-            'feet': feet
-        }
+        landmarks = results.pose_landmarks.landmark if results.pose_landmarks else []
 
-        global last_drawn_frame
-        last_drawn_frame = frame.copy()
+        with frame_cond:
+            # Capture to publish is the time spent in MediaPipe and building the payloads
+            published_at = time.time_ns() // 1000
+            latest_pose_packet = encode_pose_frame(frame_version + 1, captured_at, published_at, landmarks)
+            if shared_buffer is not None:
+                shared_buffer.publish(latest_pose_packet)
+            latest_frame_data = {
+                'seq': frame_version + 1,
+                'captured_at': captured_at,
+                'published_at': published_at,
+                'cmas': pose_landmarks,
+                'legs': legs,
+                'feet': feet
+            }
+            # cap.read() hands back a new array each time, so nothing else writes to this one
+            last_drawn_frame = frame
+            frame_version += 1
+            frame_cond.notify_all()
+
+
+# Runs on its own thread so encoding never holds up capture and MediaPipe. If it falls behind,
+# it skips to the newest frame rather than queueing.
+def encode_video_frames():
+    global latest_video_part, video_version
+    seen = frame_version
+    while True:
+        with frame_cond:
+            frame_cond.wait_for(lambda: frame_version != seen and video_viewers > 0)
+            seen = frame_version
+            frame = last_drawn_frame
+
+        ret, jpeg = cv2.imencode('.jpg', frame)
+        if not ret:
+            continue
+        data = jpeg.tobytes()
+        # Content-Length lets the Java reader take the frame without scanning it for the end marker
+        part = (b'--frame\r\n'
+                b'Content-Type: image/jpeg\r\n'
+                b'Content-Length: ' + str(len(data)).encode() + b'\r\n\r\n' + data + b'\r\n')
+        with video_cond:
+            latest_video_part = part
+            video_version += 1
+            video_cond.notify_all()
 
 
 def generate_mjpeg():
+    global video_viewers
+    with frame_cond:
+        video_viewers += 1
+        # Wakes the encoder if it was idle for lack of viewers
+        frame_cond.notify_all()
+    try:
+        seen = video_version
+        while True:
+            with video_cond:
+                video_cond.wait_for(lambda: video_version != seen, VIDEO_KEEPALIVE_S)
+                seen = video_version
+                part = latest_video_part
+            if part:
+                yield part
+    finally:
+        with frame_cond:
+            video_viewers -= 1
+
+
+def generate_pose_stream(binary):
+    seen = frame_version
+    while True:
+        with frame_cond:
+            frame_cond.wait_for(lambda: frame_version != seen)
+            seen = frame_version
+            data = latest_pose_packet if binary else latest_frame_data
+        yield data if binary else json.dumps(data) + '\n'
+
+
+# Same back-to-back binary frames as /pose-stream?format=binary, without HTTP around them.
+# Used when the Java app launches this script and passes --pose-socket.
+def serve_pose_socket(path):
+    if os.path.exists(path):
+        os.unlink(path)
+    server = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+    server.bind(path)
+    os.chmod(path, 0o600)
+    server.listen()
+    atexit.register(lambda: os.path.exists(path) and os.unlink(path))
+
+    # PythonServerController waits for this line before switching over
+    print('pose-socket: ' + path, flush=True)
     while True:
-        if last_drawn_frame is not None:
-            ret, jpeg = cv2.imencode('.jpg', last_drawn_frame)
-            if ret:
-                frame = jpeg.tobytes()
-                yield (b'--frame\r\n'
-                       b'Content-Type: image/jpeg\r\n\r\n' + frame + b'\r\n')
-        cv2.waitKey(1)
+        conn, _ = server.accept()
+        threading.Thread(target=push_pose_frames, args=(conn,), daemon=True).start()
+
+
+def push_pose_frames(conn):
+    with conn:
+        try:
+            for packet in generate_pose_stream(True):
+                conn.sendall(packet)
+        except OSError:
+            # Reader went away
+            pass
 
 
 @app.route('/video_feed')
@@ -116,13 +298,62 @@ def video_feed():
     return Response(generate_mjpeg(), mimetype='multipart/x-mixed-replace; boundary=frame')
 
 
+# ?after=<seq>&timeoutMs=<ms> holds the request until a frame other than <seq> has been
+# processed (other, not newer, so a client that saw a previous run's frames is not stuck),
+# and answers 204 if none came in time. Without 'after' the latest frame is returned at once.
 @app.route('/latest-frame', methods=['GET'])
 def get_latest_frame():
-    return jsonify(latest_frame_data)
+    after = request.args.get('after', type=int)
+    if after is None:
+        return jsonify(latest_frame_data)
+
+    timeout_ms = min(request.args.get('timeoutMs', 1000, type=int), MAX_LONG_POLL_MS)
+    with frame_cond:
+        if not frame_cond.wait_for(lambda: frame_version != after, timeout_ms / 1000):
+            return '', 204
+        data = latest_frame_data
+    return jsonify(data)
+
+
+# One long-lived response, one JSON document per line for every processed frame.
+# ?format=binary sends back-to-back fixed-size binary frames instead.
+@app.route('/pose-stream', methods=['GET'])
+def pose_stream():
+    if request.args.get('format') == 'binary':
+        return Response(generate_pose_stream(True), mimetype='application/octet-stream')
+    return Response(generate_pose_stream(False), mimetype='application/x-ndjson')
 
 
 if __name__ == '__main__':
-    last_drawn_frame = None
+    parser = argparse.ArgumentParser()
+    parser.add_argument('--pose-socket', help='also stream binary pose frames on this Unix domain socket')
+    parser.add_argument('--pose-mmap', help='also write binary pose frames into this shared pose buffer file')
+    parser.add_argument('--raw-video', action='store_true', help='do not draw the landmarks on /video_feed')
+    args = parser.parse_args()
+    draw_landmarks = not args.raw_video
+
+    if args.pose_socket:
+        if hasattr(socket, 'AF_UNIX'):
+            threading.Thread(target=serve_pose_socket, args=(args.pose_socket,), daemon=True).start()
+        else:
+            print('Unix domain sockets are not available here; pose frames stay on HTTP', flush=True)
+
+    if args.pose_mmap:
+        if platform.machine().lower() in STORE_ORDERED_MACHINES:
+            shared_buffer = SharedPoseBuffer(args.pose_mmap)
+            # PythonServerController waits for this line before reading from the buffer
+            print('pose-mmap: ' + args.pose_mmap, flush=True)
+        else:
+            # On ARM (e.g. Apple silicon) a reader could see a slot's stamp before its frame
+            print('The shared pose buffer needs an x86 CPU; pose frames stay on the stream', flush=True)
+
+    # HTTP/1.1 keeps connections open, so the Java client reuses one socket across /latest-frame polls
+    WSGIRequestHandler.protocol_version = "HTTP/1.1"
+    # Headers and body are separate writes; on a kept-alive socket Nagle would hold the body
+    # back until the client's delayed ACK, adding ~40 ms to every long-poll answer
+    WSGIRequestHandler.disable_nagle_algorithm = True
+
+    threading.Thread(target=encode_video_frames, daemon=True).start()
 
     # Start Flask server in background thread
     threading.Thread(target=lambda: app.run(port=8080, use_reloader=False), daemon=True).start()
@@ -0,0 +1,132 @@
+package com.cmas.main.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Process-wide counters, gauges and timers, written out in the Prometheus text format.
+// Updates only touch LongAdders, so they are safe to call on the frame path; the
+// cost of summing them is paid by whoever scrapes.
+public class MetricsRegistry {
+
+    private static final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    // Registering the same name twice returns the existing counter
+    public static Counter counter(String name, String help) {
+        return (Counter) family(name, help, "counter").child("", Counter::new);
+    }
+
+    // The supplier is read on every scrape and must not block
+    public static void gauge(String name, String help, LongSupplier value) {
+        family(name, help, "gauge").children.put("", value);
+    }
+
+    // One gauge per set of labels, given as name/value pairs
+    public static void gauge(String name, String help, LongSupplier value, String... labels) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) key.append(',');
+            key.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        family(name, help, "gauge").children.put(key.toString(), value);
+    }
+
+    // One timer per label value, all under the same metric name
+    public static Timer timer(String name, String help, String label, String value) {
+        return (Timer) family(name, help, "summary").child(label + "=\"" + escape(value) + "\"", Timer::new);
+    }
+
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> child : family.children.entrySet()) {
+                String labels = child.getKey().isEmpty() ? "" : "{" + child.getKey() + "}";
+                Object metric = child.getValue();
+                if (metric instanceof Counter counter) {
+                    sample(out, family.name, labels, counter.get());
+                } else if (metric instanceof LongSupplier gauge) {
+                    sample(out, family.name, labels, gauge.getAsLong());
+                } else if (metric instanceof Timer timer) {
+                    out.append(family.name).append("_sum").append(labels).append(' ')
+                            .append(timer.getTotalNanos() / 1e9).append('\n');
+                    sample(out, family.name + "_count", labels, timer.getCount());
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    public static class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long n) {
+            value.add(n);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public static class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+    }
+
+    private static class Family {
+        final String name;
+        final String help;
+        final String type;
+        final Map<String, Object> children = new ConcurrentSkipListMap<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        Object child(String labels, Supplier<Object> create) {
+            return children.computeIfAbsent(labels, l -> create.get());
+        }
+    }
+}
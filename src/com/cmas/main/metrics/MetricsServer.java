@@ -0,0 +1,59 @@
+package com.cmas.main.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// Serves MetricsRegistry at http://localhost:<port>/metrics for Prometheus to scrape.
+// The port comes from -Dcmas.metricsPort (default 9464); 0 or less turns it off.
+public class MetricsServer {
+
+    public static final int DEFAULT_PORT = 9464;
+
+    private static HttpServer server;
+
+    public static synchronized void start() {
+        start(Integer.getInteger("cmas.metricsPort", DEFAULT_PORT));
+    }
+
+    public static synchronized void start(int port) {
+        if (server != null || port <= 0) return;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", MetricsServer::handle);
+            server.start();
+            System.out.println("Metrics served on http://localhost:" + port + "/metrics");
+        } catch (IOException e) {
+            // The app runs fine without it, e.g. when a second instance already holds the port
+            System.err.println("Could not start metrics server on port " + port + ": " + e.getMessage());
+            server = null;
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = MetricsRegistry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}